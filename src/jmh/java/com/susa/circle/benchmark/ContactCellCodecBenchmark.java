@@ -0,0 +1,187 @@
+package com.susa.circle.benchmark;
+
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import com.susa.circle.mapper.ContactCellCodec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Compares ContactCellCodec with the regex/split/valueOf code the CSV import
+// and export used before it, on a block of generated Emails/Phones cells.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactCellCodecBenchmark {
+
+    private static final int CELLS = 1_000;
+
+    private String[] emailCells;
+    private String[] phoneCells;
+    private List<List<ContactEmail>> emailLists;
+    private List<List<ContactPhone>> phoneLists;
+
+    @Setup
+    public void setUp() {
+        emailCells = new String[CELLS];
+        phoneCells = new String[CELLS];
+        emailLists = new ArrayList<>(CELLS);
+        phoneLists = new ArrayList<>(CELLS);
+
+        EmailType[] emailTypes = EmailType.values();
+        PhoneType[] phoneTypes = PhoneType.values();
+        for (int i = 0; i < CELLS; i++) {
+            // one to three entries per cell, with a mix of type spellings
+            List<ContactEmail> emails = new ArrayList<>();
+            List<ContactPhone> phones = new ArrayList<>();
+            for (int j = 0; j <= i % 3; j++) {
+                emails.add(
+                    ContactEmail.builder()
+                        .email("user" + i + "." + j + "@example.com")
+                        .type(emailTypes[(i + j) % emailTypes.length])
+                        .build()
+                );
+                phones.add(
+                    ContactPhone.builder()
+                        .phoneNumber("+1555" + (1_000_000 + i * 3 + j))
+                        .type(phoneTypes[(i + j) % phoneTypes.length])
+                        .build()
+                );
+            }
+            emailLists.add(emails);
+            phoneLists.add(phones);
+
+            String emailCell = ContactCellCodec.formatEmails(emails);
+            String phoneCell = ContactCellCodec.formatPhones(phones);
+            emailCells[i] = i % 2 == 0 ? emailCell : emailCell.toLowerCase();
+            phoneCells[i] = i % 2 == 0 ? phoneCell : phoneCell + "; ";
+        }
+    }
+
+    @Benchmark
+    public void parseWithCodec(Blackhole bh) {
+        for (int i = 0; i < CELLS; i++) {
+            bh.consume(ContactCellCodec.parseEmails(emailCells[i]));
+            bh.consume(ContactCellCodec.parsePhones(phoneCells[i]));
+        }
+    }
+
+    @Benchmark
+    public void parseWithRegex(Blackhole bh) {
+        for (int i = 0; i < CELLS; i++) {
+            bh.consume(LegacyCells.parseEmails(emailCells[i]));
+            bh.consume(LegacyCells.parsePhones(phoneCells[i]));
+        }
+    }
+
+    @Benchmark
+    public void formatWithCodec(Blackhole bh) {
+        for (int i = 0; i < CELLS; i++) {
+            bh.consume(ContactCellCodec.formatEmails(emailLists.get(i)));
+            bh.consume(ContactCellCodec.formatPhones(phoneLists.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void formatWithStreams(Blackhole bh) {
+        for (int i = 0; i < CELLS; i++) {
+            bh.consume(LegacyCells.formatEmails(emailLists.get(i)));
+            bh.consume(LegacyCells.formatPhones(phoneLists.get(i)));
+        }
+    }
+
+    // The previous ContactImportService/ContactExportService implementation
+    private static class LegacyCells {
+
+        static List<EmailRequest> parseEmails(String emailsStr) {
+            List<EmailRequest> emails = new ArrayList<>();
+            Pattern pattern = Pattern.compile("([^;]+)\\s*\\(([^)]+)\\)");
+
+            for (String part : emailsStr.split(";")) {
+                part = part.trim();
+                if (!part.isEmpty()) {
+                    Matcher matcher = pattern.matcher(part);
+                    if (matcher.find()) {
+                        String email = matcher.group(1).trim();
+                        String type = matcher.group(2).trim().toUpperCase();
+
+                        EmailType emailType;
+                        try {
+                            emailType = EmailType.valueOf(type);
+                        } catch (IllegalArgumentException e) {
+                            emailType = EmailType.PERSONAL;
+                        }
+
+                        emails.add(new EmailRequest(email, emailType));
+                    }
+                }
+            }
+
+            return emails;
+        }
+
+        static List<PhoneRequest> parsePhones(String phonesStr) {
+            List<PhoneRequest> phones = new ArrayList<>();
+            Pattern pattern = Pattern.compile("([^;]+)\\s*\\(([^)]+)\\)");
+
+            for (String part : phonesStr.split(";")) {
+                part = part.trim();
+                if (!part.isEmpty()) {
+                    Matcher matcher = pattern.matcher(part);
+                    if (matcher.find()) {
+                        String phone = matcher.group(1).trim();
+                        String type = matcher.group(2).trim().toUpperCase();
+
+                        PhoneType phoneType;
+                        try {
+                            phoneType = PhoneType.valueOf(type);
+                        } catch (IllegalArgumentException e) {
+                            phoneType = PhoneType.PERSONAL;
+                        }
+
+                        phones.add(new PhoneRequest(phone, phoneType));
+                    }
+                }
+            }
+
+            return phones;
+        }
+
+        static String formatEmails(List<ContactEmail> emails) {
+            return emails
+                .stream()
+                .map(email -> email.getEmail() + " (" + email.getType() + ")")
+                .collect(Collectors.joining("; "));
+        }
+
+        static String formatPhones(List<ContactPhone> phones) {
+            return phones
+                .stream()
+                .map(phone ->
+                    phone.getPhoneNumber() + " (" + phone.getType() + ")"
+                )
+                .collect(Collectors.joining("; "));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.susa.circle.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.entity.User;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import com.susa.circle.mapper.ContactCellCodec;
+import com.susa.circle.mapper.ContactMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+// Synthetic address books for the benchmarks. Contact i is derived from i
+// alone, so every run and every size sees the same data: one to three
+// emails and zero to two phones, with and without a title.
+final class ContactDatasets {
+
+    private static final String[] FIRST_NAMES = {
+        "Ada",
+        "Grace",
+        "Alan",
+        "Edsger",
+        "Barbara",
+        "Donald",
+        "Margaret",
+        "Ken",
+    };
+    private static final String[] LAST_NAMES = {
+        "Lovelace",
+        "Hopper",
+        "Turing",
+        "Dijkstra",
+        "Liskov",
+        "Knuth",
+        "Hamilton",
+        "Thompson",
+        "Ritchie",
+    };
+    private static final String[] TITLES = {
+        "Engineer",
+        "Manager",
+        "Director",
+        null,
+    };
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(
+        2024,
+        1,
+        1,
+        0,
+        0
+    );
+
+    private ContactDatasets() {}
+
+    static ContactRequest request(int i) {
+        List<EmailRequest> emails = new ArrayList<>();
+        EmailType[] emailTypes = EmailType.values();
+        for (int j = 0; j <= i % 3; j++) {
+            emails.add(
+                new EmailRequest(
+                    "contact" + i + "." + j + "@example.com",
+                    emailTypes[(i + j) % emailTypes.length]
+                )
+            );
+        }
+
+        List<PhoneRequest> phones = new ArrayList<>();
+        PhoneType[] phoneTypes = PhoneType.values();
+        for (int j = 0; j < i % 3; j++) {
+            phones.add(
+                new PhoneRequest(
+                    "+1555" + (1_000_000 + (i * 2L + j) % 9_000_000),
+                    phoneTypes[(i + j) % phoneTypes.length]
+                )
+            );
+        }
+
+        return new ContactRequest(
+            FIRST_NAMES[i % FIRST_NAMES.length],
+            LAST_NAMES[i % LAST_NAMES.length] + i,
+            TITLES[i % TITLES.length],
+            emails,
+            phones
+        );
+    }
+
+    static List<ContactRequest> requests(int size) {
+        List<ContactRequest> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            requests.add(request(i));
+        }
+        return requests;
+    }
+
+    // As loaded by the export, with ids and timestamps set
+    static List<Contact> entities(User user, int size) {
+        List<Contact> contacts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Contact contact = ContactMapper.toEntity(user, request(i));
+            contact.setId(i + 1L);
+            contact.setCreatedAt(CREATED_AT.plusSeconds(i));
+            contact.setUpdatedAt(CREATED_AT.plusSeconds(i));
+            long childId = (i + 1L) * 3;
+            for (ContactEmail email : contact.getEmails()) {
+                email.setId(childId++);
+            }
+            for (ContactPhone phone : contact.getPhones()) {
+                phone.setId(childId++);
+            }
+            contacts.add(contact);
+        }
+        return contacts;
+    }
+
+    // In the layout of the CSV export, which the CSV import reads back
+    static byte[] csv(int size) {
+        User user = new User();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            CSVPrinter printer = new CSVPrinter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                CSVFormat.DEFAULT.builder()
+                    .setHeader(
+                        "First Name",
+                        "Last Name",
+                        "Title",
+                        "Emails",
+                        "Phones"
+                    )
+                    .build()
+            )
+        ) {
+            for (int i = 0; i < size; i++) {
+                Contact contact = ContactMapper.toEntity(user, request(i));
+                printer.printRecord(
+                    contact.getFirstName(),
+                    contact.getLastName(),
+                    contact.getTitle() != null ? contact.getTitle() : "",
+                    ContactCellCodec.formatEmails(contact.getEmails()),
+                    ContactCellCodec.formatPhones(contact.getPhones())
+                );
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // A JSON array of ContactRequest, as the JSON import expects
+    static byte[] json(int size) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+            JsonGenerator generator = objectMapper
+                .getFactory()
+                .createGenerator(out)
+        ) {
+            generator.writeStartArray();
+            for (int i = 0; i < size; i++) {
+                objectMapper.writeValue(generator, request(i));
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,129 @@
+package com.susa.circle.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.User;
+import com.susa.circle.mapper.ContactCellCodec;
+import com.susa.circle.mapper.ContactMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The in-memory half of the JSON and CSV exports: loaded entities through
+// ContactResponse into the output format, written to a discarding stream.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ContactExportBenchmark {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader("First Name", "Last Name", "Title", "Emails", "Phones")
+        .build();
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    private List<Contact> contacts;
+    private ObjectMapper objectMapper;
+    private ObjectWriter contactWriter;
+
+    @Setup
+    public void setUp() {
+        contacts = ContactDatasets.entities(new User(), size);
+
+        // Configured like the export
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        contactWriter = objectMapper
+            .writerFor(ContactResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Benchmark
+    public void entitiesToJson(Contacts exported) throws IOException {
+        try (
+            JsonGenerator generator = objectMapper
+                .getFactory()
+                .createGenerator(OutputStream.nullOutputStream())
+        ) {
+            generator.writeStartArray();
+            for (Contact contact : contacts) {
+                contactWriter.writeValue(
+                    generator,
+                    ContactMapper.toResponse(contact)
+                );
+                exported.contacts++;
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    // The CSV export prints entities directly; the response mapping is
+    // kept so both formats measure the same path
+    @Benchmark
+    public void entitiesToCsv(Contacts exported) throws IOException {
+        try (
+            CSVPrinter printer = new CSVPrinter(
+                new BufferedWriter(
+                    new OutputStreamWriter(
+                        OutputStream.nullOutputStream(),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                CSV_FORMAT
+            )
+        ) {
+            for (Contact contact : contacts) {
+                ContactResponse response = ContactMapper.toResponse(contact);
+                printer.printRecord(
+                    response.getFirstName(),
+                    response.getLastName(),
+                    response.getTitle() != null ? response.getTitle() : "",
+                    ContactCellCodec.formatEmails(contact.getEmails()),
+                    ContactCellCodec.formatPhones(contact.getPhones())
+                );
+                exported.contacts++;
+            }
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Contacts {
+
+        public long contacts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            contacts = 0;
+        }
+    }
+}
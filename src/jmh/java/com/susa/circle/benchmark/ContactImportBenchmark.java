@@ -0,0 +1,118 @@
+package com.susa.circle.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.entity.User;
+import com.susa.circle.mapper.ContactMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// The in-memory half of the CSV and JSON imports: parse a whole file and
+// build the Contact entities the import would persist, without a database.
+// The contacts counter gives the throughput per contact next to the one per
+// file, and -prof gc the bytes allocated per file.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ContactImportBenchmark {
+
+    // Same settings as the CSV import
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader()
+        .setSkipHeaderRecord(true)
+        .setIgnoreHeaderCase(true)
+        .setTrim(true)
+        .build();
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    private final User user = new User();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader contactReader = objectMapper.readerFor(
+        ContactRequest.class
+    );
+    private byte[] csv;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        csv = ContactDatasets.csv(size);
+        json = ContactDatasets.json(size);
+    }
+
+    @Benchmark
+    public void csvToEntities(Contacts contacts, Blackhole bh)
+        throws IOException {
+        try (
+            CSVParser parser = CSVParser.parse(
+                new InputStreamReader(
+                    new ByteArrayInputStream(csv),
+                    StandardCharsets.UTF_8
+                ),
+                CSV_FORMAT
+            )
+        ) {
+            for (CSVRecord record : parser) {
+                ContactRequest request = ContactMapper.toRequest(record);
+                bh.consume(ContactMapper.toEntity(user, request));
+                contacts.contacts++;
+            }
+        }
+    }
+
+    @Benchmark
+    public void jsonToEntities(Contacts contacts, Blackhole bh)
+        throws IOException {
+        try (
+            JsonParser parser = objectMapper
+                .getFactory()
+                .createParser(new ByteArrayInputStream(json))
+        ) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                ContactRequest request = contactReader.readValue(parser);
+                bh.consume(ContactMapper.toEntity(user, request));
+                contacts.contacts++;
+            }
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Contacts {
+
+        public long contacts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            contacts = 0;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.susa.circle.benchmark;
+
+import com.susa.circle.CircleApplication;
+import com.susa.circle.entity.User;
+import com.susa.circle.repository.UserRepository;
+import com.susa.circle.service.ContactExportService;
+import com.susa.circle.service.ContactImportService;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// ContactImportService and ContactExportService end to end, in the full
+// application context against an in-memory H2 database. H2 takes the
+// generic JDBC batch paths, not the PostgreSQL COPY and upsert ones, so
+// compare results between runs of this benchmark rather than with
+// production timings.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ContactServiceBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ContactImportService contactImportService;
+    private ContactExportService contactExportService;
+    private JdbcTemplate jdbcTemplate;
+    private Long importUserId;
+    private Long exportUserId;
+    private byte[] csv;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CircleApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=" +
+                "org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.susa.circle=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=" +
+                "WARN",
+            "--contacts.import.admission.rows-per-second=0"
+        );
+        contactImportService = context.getBean(ContactImportService.class);
+        contactExportService = context.getBean(ContactExportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        importUserId = userRepository.save(user("import")).getId();
+        exportUserId = userRepository.save(user("export")).getId();
+
+        csv = ContactDatasets.csv(size);
+        json = ContactDatasets.json(size);
+        contactImportService.importContactsFromCsvStream(
+            exportUserId,
+            new ByteArrayInputStream(csv)
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Keeps the import user's table from growing across iterations
+    @TearDown(Level.Iteration)
+    public void deleteImportedContacts() {
+        String contactIds = "SELECT id FROM contacts WHERE user_id = ?";
+        jdbcTemplate.update(
+            "DELETE FROM contact_emails WHERE contact_id IN (" +
+                contactIds +
+                ")",
+            importUserId
+        );
+        jdbcTemplate.update(
+            "DELETE FROM contact_phones WHERE contact_id IN (" +
+                contactIds +
+                ")",
+            importUserId
+        );
+        jdbcTemplate.update(
+            "DELETE FROM contacts WHERE user_id = ?",
+            importUserId
+        );
+    }
+
+    @Benchmark
+    public void importCsv(Contacts imported) {
+        imported.contacts += contactImportService
+            .importContactsFromCsvStream(
+                importUserId,
+                new ByteArrayInputStream(csv)
+            )
+            .getImported();
+    }
+
+    @Benchmark
+    public void importJson(Contacts imported) {
+        imported.contacts += contactImportService
+            .importContactsFromJsonStream(
+                importUserId,
+                new ByteArrayInputStream(json)
+            )
+            .getImported();
+    }
+
+    @Benchmark
+    public void exportJson(Contacts exported) {
+        exported.contacts += contactExportService.streamContactsAsJson(
+            exportUserId,
+            OutputStream.nullOutputStream()
+        );
+    }
+
+    @Benchmark
+    public void exportCsv(Contacts exported) {
+        exported.contacts += contactExportService.streamContactsAsCsv(
+            exportUserId,
+            OutputStream.nullOutputStream()
+        );
+    }
+
+    private static User user(String name) {
+        return User.builder()
+            .firstName("Benchmark")
+            .lastName(name)
+            .email(name + "@benchmark.example.com")
+            .password("unused")
+            .build();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Contacts {
+
+        public long contacts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            contacts = 0;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.susa.circle.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// users.contact_count is added as null to existing rows. Count their
+// contacts once on startup; from then on the writes keep it up to date.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContactCountInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int users = jdbcTemplate.update(
+                "UPDATE users SET contact_count = (SELECT COUNT(*) FROM " +
+                    "contacts c WHERE c.user_id = users.id) " +
+                    "WHERE contact_count IS NULL"
+            );
+            if (users > 0) {
+                log.info("Backfilled the contact count of {} users", users);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not backfill users.contact_count", e);
+        }
+    }
+}
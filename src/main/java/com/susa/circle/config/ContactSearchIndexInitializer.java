@@ -0,0 +1,91 @@
+package com.susa.circle.config;
+
+import static com.susa.circle.service.PostgresContactSearch.CONTACT_TEXT;
+import static com.susa.circle.service.PostgresContactSearch.EMAIL_TEXT;
+import static com.susa.circle.service.PostgresContactSearch.PHONE_DIGITS;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// The pg_trgm GIN indexes behind PostgresContactSearch. Hibernate can't
+// declare expression or GIN indexes, so they are created here on startup,
+// concurrently so that writes aren't blocked on a large existing table.
+// Without them the search still works, it just scans.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContactSearchIndexInitializer implements ApplicationRunner {
+
+    private static final Map<String, String> INDEXES = Map.of(
+        "idx_contacts_search_trgm",
+        "contacts USING gin ((" + CONTACT_TEXT + ") gin_trgm_ops)",
+        "idx_contact_emails_search_trgm",
+        "contact_emails USING gin ((" + EMAIL_TEXT + ") gin_trgm_ops)",
+        "idx_contact_phones_search_trgm",
+        "contact_phones USING gin ((" + PHONE_DIGITS + ") gin_trgm_ops)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!databasePlatform.isPostgres()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (DataAccessException e) {
+            log.warn(
+                "Could not enable pg_trgm, contact search is not indexed",
+                e
+            );
+            return;
+        }
+
+        INDEXES.forEach((name, definition) -> {
+            try {
+                // A failed concurrent build leaves an INVALID index behind,
+                // which IF NOT EXISTS would then skip on every startup
+                if (isInvalid(name)) {
+                    log.warn("Rebuilding invalid search index {}", name);
+                    jdbcTemplate.execute(
+                        "DROP INDEX CONCURRENTLY IF EXISTS " + name
+                    );
+                }
+                jdbcTemplate.execute(
+                    "CREATE INDEX CONCURRENTLY IF NOT EXISTS " +
+                        name +
+                        " ON " +
+                        definition
+                );
+            } catch (DataAccessException e) {
+                log.warn("Could not create search index {}", name, e);
+            }
+        });
+    }
+
+    private boolean isInvalid(String name) {
+        return Boolean.FALSE.equals(
+            jdbcTemplate
+                .queryForList(
+                    "SELECT i.indisvalid FROM pg_index i " +
+                        "JOIN pg_class c ON c.oid = i.indexrelid " +
+                        "WHERE c.relname = ? " +
+                        "AND pg_table_is_visible(c.oid)",
+                    Boolean.class,
+                    name
+                )
+                .stream()
+                .findFirst()
+                .orElse(null)
+        );
+    }
+}
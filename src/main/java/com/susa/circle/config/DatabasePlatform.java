@@ -0,0 +1,40 @@
+package com.susa.circle.config;
+
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class DatabasePlatform {
+
+    private final DataSource dataSource;
+    private volatile String productName;
+
+    public DatabasePlatform(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    // Gates the PostgreSQL-only fast paths; everything else uses plain JPA
+    public boolean isPostgres() {
+        return "PostgreSQL".equalsIgnoreCase(getProductName());
+    }
+
+    public String getProductName() {
+        if (productName == null) {
+            try {
+                productName = JdbcUtils.extractDatabaseMetaData(
+                    dataSource,
+                    DatabaseMetaData::getDatabaseProductName
+                );
+            } catch (MetaDataAccessException e) {
+                log.warn("Could not determine database product", e);
+                return "unknown";
+            }
+        }
+        return productName;
+    }
+}
@@ -0,0 +1,28 @@
+package com.susa.circle.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class ExportJobConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor exportJobExecutor(
+        @Value("${contacts.export.jobs.workers:2}") int workers,
+        @Value("${contacts.export.jobs.queue-capacity:20}") int queueCapacity
+    ) {
+        // Fixed-size pool with a bounded queue: once both are full new jobs
+        // are rejected instead of piling up in memory
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
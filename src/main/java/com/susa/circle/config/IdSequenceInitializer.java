@@ -0,0 +1,61 @@
+package com.susa.circle.config;
+
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Contact tables used to be filled by IDENTITY columns. On an existing
+// database the new sequences start at 1 and would hand out ids that are
+// already taken, so move them past the current maximum once on startup.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer implements ApplicationRunner {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+        "contacts_seq",
+        "contacts",
+        "contact_emails_seq",
+        "contact_emails",
+        "contact_phones_seq",
+        "contact_phones"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!databasePlatform.isPostgres()) {
+            return;
+        }
+
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                // setval marks the value as used, so the next pooled block
+                // starts right after the highest existing id
+                List<Long> moved = jdbcTemplate.queryForList(
+                    "SELECT setval('" +
+                        sequence +
+                        "', m.max_id) FROM (SELECT MAX(id) AS max_id FROM " +
+                        table +
+                        ") m WHERE m.max_id >= (SELECT last_value FROM " +
+                        sequence +
+                        ")",
+                    Long.class
+                );
+                if (!moved.isEmpty()) {
+                    log.info("Moved {} to {}", sequence, moved.get(0));
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not align {} with {}", sequence, table, e);
+            }
+        });
+    }
+}
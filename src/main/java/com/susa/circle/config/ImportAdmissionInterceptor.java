@@ -0,0 +1,57 @@
+package com.susa.circle.config;
+
+import com.susa.circle.security.CustomUserDetails;
+import com.susa.circle.service.ImportThrottle;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// Holds an ImportThrottle permit for the whole import request. Streamed
+// imports finish on an async dispatch, which keeps the permit taken by the
+// first one; afterCompletion only runs once the last dispatch is done.
+@RequiredArgsConstructor
+public class ImportAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT =
+        ImportAdmissionInterceptor.class.getName() + ".permit";
+
+    private final ImportThrottle importThrottle;
+
+    @Override
+    public boolean preHandle(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Object handler
+    ) {
+        if (request.getAttribute(PERMIT) != null) {
+            return true;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext()
+            .getAuthentication();
+        if (
+            authentication != null &&
+            authentication.getPrincipal() instanceof CustomUserDetails user
+        ) {
+            request.setAttribute(PERMIT, importThrottle.admit(user.getId()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        Object handler,
+        Exception ex
+    ) {
+        Object permit = request.getAttribute(PERMIT);
+        if (permit instanceof ImportThrottle.Permit importPermit) {
+            importPermit.close();
+            request.removeAttribute(PERMIT);
+        }
+    }
+}
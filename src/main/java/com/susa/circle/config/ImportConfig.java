@@ -0,0 +1,44 @@
+package com.susa.circle.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImportConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor importWorkerExecutor(
+        @Value("${contacts.import.pipeline.workers:0}") int workers
+    ) {
+        // CPU-bound parse/validate work, so default to one thread per core.
+        // Each import bounds its own in-flight chunks, so the queue can stay
+        // unbounded here.
+        int poolSize = workers > 0
+            ? workers
+            : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("import-worker-");
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor importUploadExecutor(
+        @Value("${contacts.import.uploads.workers:4}") int workers,
+        @Value("${contacts.import.uploads.queue-capacity:20}") int queueCapacity
+    ) {
+        // A resumable upload only holds a worker while it imports the chunks
+        // it has so far, so this caps concurrent runs, not open uploads
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
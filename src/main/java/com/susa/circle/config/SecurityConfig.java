@@ -2,6 +2,7 @@ package com.susa.circle.config;
 
 import com.susa.circle.security.JwtAuthenticationEntryPoint;
 import com.susa.circle.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -67,6 +68,10 @@ public class SecurityConfig {
             )
             .authorizeHttpRequests(auth ->
                 auth
+                    // Streaming responses finish on an async dispatch that
+                    // was already authorized on the original request
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                    .permitAll()
                     .requestMatchers("/api/auth/**")
                     .permitAll()
                     .requestMatchers("/api/public/**")
@@ -0,0 +1,45 @@
+package com.susa.circle.config;
+
+import com.susa.circle.service.ImportThrottle;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    // Boot's CBORMapper, configured by the same spring.jackson.* properties
+    private final CBORMapper cborMapper;
+    private final ImportThrottle importThrottle;
+
+    // application/cbor for request and response bodies. The CBOR converter
+    // is registered after the JSON one, so JSON stays the default and CBOR
+    // is only used when a client sends or asks for it.
+    @Override
+    public void configureMessageConverters(
+        HttpMessageConverters.ServerBuilder builder
+    ) {
+        builder.withCborConverter(
+            new JacksonCborHttpMessageConverter(cborMapper)
+        );
+    }
+
+    // Chunked uploads are admitted by ImportUploadService when their import
+    // starts, not per request. Dry runs write nothing, so they neither take
+    // an import slot nor wait for one.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry
+            .addInterceptor(new ImportAdmissionInterceptor(importThrottle))
+            .addPathPatterns("/api/contacts/import/**")
+            .excludePathPatterns(
+                "/api/contacts/import/uploads/**",
+                "/api/contacts/import/*/dry-run"
+            );
+    }
+}
@@ -2,26 +2,42 @@ package com.susa.circle.controller;
 
 import com.susa.circle.dto.request.ContactRequest;
 import com.susa.circle.dto.response.ApiResponse;
+import com.susa.circle.dto.response.ContactCursorPage;
 import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.dto.response.ImportSummaryResponse;
+import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.mapper.VCardWriter;
 import com.susa.circle.security.CustomUserDetails;
+import com.susa.circle.service.ContactCursor;
+import com.susa.circle.service.ContactExportCache;
 import com.susa.circle.service.ContactExportService;
 import com.susa.circle.service.ContactImportService;
+import com.susa.circle.service.ContactProjection;
 import com.susa.circle.service.ContactService;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/contacts")
@@ -29,8 +45,15 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class ContactController {
 
+    private static final int GZIP_BUFFER_SIZE = 8192;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final String VCARD = "text/vcard";
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final ContactService contactService;
     private final ContactExportService contactExportService;
+    private final ContactExportCache contactExportCache;
     private final ContactImportService contactImportService;
 
     @PostMapping
@@ -58,10 +81,7 @@ public class ContactController {
     ) {
         log.info("Get all contacts endpoint called");
 
-        Sort sort = sortDir.equalsIgnoreCase("DESC")
-            ? Sort.by(sortBy).descending()
-            : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = pageRequest(page, size, sortBy, sortDir);
 
         Page<ContactResponse> response = contactService.getAllContacts(
             userDetails.getId(),
@@ -81,10 +101,7 @@ public class ContactController {
     ) {
         log.info("Search contacts endpoint called with query: {}", query);
 
-        Sort sort = sortDir.equalsIgnoreCase("DESC")
-            ? Sort.by(sortBy).descending()
-            : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = pageRequest(page, size, sortBy, sortDir);
 
         Page<ContactResponse> response = contactService.searchContacts(
             userDetails.getId(),
@@ -94,6 +111,88 @@ public class ContactController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    // ?total=false skips the total: the response is a Slice, which only
+    // says whether there is a next page, and no count is needed
+    @GetMapping(params = { "total=false", "!cursor" })
+    public ResponseEntity<ApiResponse<Slice<ContactResponse>>> getContactSlice(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = "firstName") String sortBy,
+        @RequestParam(defaultValue = "ASC") String sortDir
+    ) {
+        log.info("Get contact slice endpoint called");
+
+        Pageable pageable = pageRequest(page, size, sortBy, sortDir);
+        Slice<ContactResponse> response = contactService.getContactSlice(
+            userDetails.getId(),
+            pageable
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping(value = "/search", params = { "total=false", "!cursor" })
+    public ResponseEntity<
+        ApiResponse<Slice<ContactResponse>>
+    > searchContactSlice(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam String query,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = "firstName") String sortBy,
+        @RequestParam(defaultValue = "ASC") String sortDir
+    ) {
+        log.info("Search contact slice endpoint called with query: {}", query);
+
+        Pageable pageable = pageRequest(page, size, sortBy, sortDir);
+        Slice<ContactResponse> response = contactService.searchContactSlice(
+            userDetails.getId(),
+            query,
+            pageable
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    // Keyset pagination, chosen by the cursor parameter (empty for the first
+    // page). Pages are sorted by last name, first name and id, and each one
+    // costs the same however deep it is.
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<ContactCursorPage>> getContactsAfter(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        log.info("Get contacts after cursor endpoint called");
+
+        ContactCursorPage response = contactService.getContactsAfter(
+            userDetails.getId(),
+            ContactCursor.parse(cursor),
+            checkPageSize(size)
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping(value = "/search", params = "cursor")
+    public ResponseEntity<ApiResponse<ContactCursorPage>> searchContactsAfter(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam String query,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        log.info(
+            "Search contacts after cursor endpoint called with query: {}",
+            query
+        );
+
+        ContactCursorPage response = contactService.searchContactsAfter(
+            userDetails.getId(),
+            query,
+            ContactCursor.parse(cursor),
+            checkPageSize(size)
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ContactResponse>> getContactById(
         @AuthenticationPrincipal CustomUserDetails userDetails,
@@ -137,36 +236,168 @@ public class ContactController {
     }
 
     // Export endpoints
+    // Same array as CBOR when the client prefers application/cbor
     @GetMapping("/export/json")
-    public ResponseEntity<byte[]> exportContactsAsJson(
-        @AuthenticationPrincipal CustomUserDetails userDetails
+    public ResponseEntity<StreamingResponseBody> exportContactsAsJson(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestHeader(
+            value = HttpHeaders.ACCEPT,
+            required = false
+        ) String accept,
+        @RequestParam(required = false) String fields,
+        WebRequest request
     ) {
         log.info("Export contacts as JSON endpoint called");
-        byte[] jsonData = contactExportService.exportContactsAsJson(
-            userDetails.getId()
-        );
-
+        Long userId = userDetails.getId();
+        // Parsed up front so an unknown field is a 400, not a broken stream
+        ContactProjection projection = ContactProjection.parse(fields);
         HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        if (prefersCbor(accept)) {
+            StreamingResponseBody body = out ->
+                contactExportService.streamContactsAsCbor(
+                    userId,
+                    out,
+                    projection
+                );
+            headers.setContentType(MediaType.APPLICATION_CBOR);
+            headers.setContentDispositionFormData(
+                "attachment",
+                "contacts.cbor"
+            );
+            return cachedExport(
+                userId,
+                exportVariant("cbor", projection),
+                request,
+                headers,
+                body
+            );
+        }
+
+        StreamingResponseBody body = out ->
+            contactExportService.streamContactsAsJson(userId, out, projection);
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setContentDispositionFormData("attachment", "contacts.json");
 
-        return ResponseEntity.ok().headers(headers).body(jsonData);
+        return cachedExport(
+            userId,
+            exportVariant("json", projection),
+            request,
+            headers,
+            body
+        );
     }
 
     @GetMapping("/export/csv")
-    public ResponseEntity<byte[]> exportContactsAsCsv(
-        @AuthenticationPrincipal CustomUserDetails userDetails
+    public ResponseEntity<StreamingResponseBody> exportContactsAsCsv(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestHeader(
+            value = HttpHeaders.ACCEPT_ENCODING,
+            required = false
+        ) String acceptEncoding,
+        @RequestParam(required = false) String fields,
+        WebRequest request
     ) {
         log.info("Export contacts as CSV endpoint called");
-        byte[] csvData = contactExportService.exportContactsAsCsv(
-            userDetails.getId()
-        );
+        Long userId = userDetails.getId();
+        ContactProjection projection = ContactProjection.parse(fields);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // Sync flush so every exported chunk reaches the client
+                GZIPOutputStream gzipOut = new GZIPOutputStream(
+                    out,
+                    GZIP_BUFFER_SIZE,
+                    true
+                );
+                contactExportService.streamContactsAsCsv(
+                    userId,
+                    gzipOut,
+                    projection
+                );
+                gzipOut.finish();
+            } else {
+                contactExportService.streamContactsAsCsv(
+                    userId,
+                    out,
+                    projection
+                );
+            }
+        };
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType("text/csv"));
         headers.setContentDispositionFormData("attachment", "contacts.csv");
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
 
-        return ResponseEntity.ok().headers(headers).body(csvData);
+        // Gzipped exports are cached compressed
+        return cachedExport(
+            userId,
+            exportVariant(gzip ? "csv+gzip" : "csv", projection),
+            request,
+            headers,
+            body
+        );
+    }
+
+    @GetMapping("/export/ndjson")
+    public ResponseEntity<StreamingResponseBody> exportContactsAsNdjson(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam(required = false) String fields,
+        WebRequest request
+    ) {
+        log.info("Export contacts as NDJSON endpoint called");
+        Long userId = userDetails.getId();
+        ContactProjection projection = ContactProjection.parse(fields);
+        StreamingResponseBody body = out ->
+            contactExportService.streamContactsAsNdjson(
+                userId,
+                out,
+                projection
+            );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(NDJSON));
+        headers.setContentDispositionFormData(
+            "attachment",
+            "contacts.ndjson"
+        );
+
+        return cachedExport(
+            userId,
+            exportVariant("ndjson", projection),
+            request,
+            headers,
+            body
+        );
+    }
+
+    @GetMapping("/export/vcf")
+    public ResponseEntity<StreamingResponseBody> exportContactsAsVCard(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam(defaultValue = VCardWriter.VERSION_4) String version,
+        WebRequest request
+    ) {
+        log.info("Export contacts as vCard endpoint called");
+        if (!VCardWriter.isSupportedVersion(version)) {
+            throw new BadRequestException(
+                "Unsupported vCard version: " + version
+            );
+        }
+
+        Long userId = userDetails.getId();
+        StreamingResponseBody body = out ->
+            contactExportService.streamContactsAsVCard(userId, out, version);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(VCARD));
+        headers.setContentDispositionFormData("attachment", "contacts.vcf");
+
+        return cachedExport(userId, "vcf " + version, request, headers, body);
     }
 
     // Import endpoints
@@ -201,6 +432,98 @@ public class ContactController {
         );
     }
 
+    // ?summary=true returns counts, the id range and the contacts that failed
+    // validation instead of every contact
+    @PostMapping(value = "/import/json", params = "summary=true")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromJsonSummary(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        log.info("Import contacts from JSON summary endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return importedResponse(
+                contactImportService.importContactsFromJsonPipelined(
+                    userDetails.getId(),
+                    in
+                )
+            );
+        }
+    }
+
+    @PostMapping("/import/json/stream")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromJsonStream(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        log.info("Streaming import contacts from JSON endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return importedResponse(
+                contactImportService.importContactsFromJsonStream(
+                    userDetails.getId(),
+                    in
+                )
+            );
+        }
+    }
+
+    // Raw request body instead of a multipart upload: parsing and inserts
+    // start while the body is still arriving and nothing is spooled to disk
+    @PostMapping(
+        value = "/import/json/stream",
+        consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromJsonBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("Streaming import contacts from JSON body endpoint called");
+        return importedResponse(
+            contactImportService.importContactsFromJsonStream(
+                userDetails.getId(),
+                body
+            )
+        );
+    }
+
+    @PostMapping(
+        value = "/import/json/stream",
+        consumes = MediaType.APPLICATION_CBOR_VALUE
+    )
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromCborBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("Streaming import contacts from CBOR body endpoint called");
+        return importedResponse(
+            contactImportService.importContactsFromCborStream(
+                userDetails.getId(),
+                body
+            )
+        );
+    }
+
     @PostMapping("/import/csv")
     public ResponseEntity<
         ApiResponse<List<ContactResponse>>
@@ -231,4 +554,535 @@ public class ContactController {
             )
         );
     }
+
+    @PostMapping(value = "/import/csv", params = "summary=true")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromCsvSummary(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        return importContactsFromCsvStream(userDetails, file, true);
+    }
+
+    @PostMapping("/import/csv/stream")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromCsvStream(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(defaultValue = "false") boolean parallel
+    ) throws IOException {
+        log.info("Streaming import contacts from CSV endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return importedResponse(
+                importCsv(userDetails.getId(), in, parallel, id -> {})
+            );
+        }
+    }
+
+    @PostMapping(value = "/import/csv/stream", consumes = CSV)
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromCsvBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body,
+        @RequestParam(defaultValue = "false") boolean parallel
+    ) {
+        log.info("Streaming import contacts from CSV body endpoint called");
+        return importedResponse(
+            importCsv(userDetails.getId(), body, parallel, id -> {})
+        );
+    }
+
+    // Several "file" parts (e.g. a large file split by lines) are imported
+    // concurrently; every batch of lines commits on its own
+    @PostMapping("/import/ndjson")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromNdjson(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") List<MultipartFile> files
+    ) {
+        log.info("Import contacts from NDJSON endpoint called");
+
+        if (files.stream().allMatch(MultipartFile::isEmpty)) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        return importedResponse(
+            contactImportService.importContactsFromNdjson(
+                userDetails.getId(),
+                files
+            )
+        );
+    }
+
+    @PostMapping(value = "/import/ndjson", consumes = NDJSON)
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromNdjsonBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("Import contacts from NDJSON body endpoint called");
+        return importedResponse(
+            contactImportService.importContactsFromNdjson(
+                userDetails.getId(),
+                body
+            )
+        );
+    }
+
+    @PostMapping("/import/vcf")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromVCard(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        log.info("Import contacts from vCard endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return importedResponse(
+                contactImportService.importContactsFromVCardStream(
+                    userDetails.getId(),
+                    in
+                )
+            );
+        }
+    }
+
+    @PostMapping(value = "/import/vcf", consumes = VCARD)
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importContactsFromVCardBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("Import contacts from vCard body endpoint called");
+        return importedResponse(
+            contactImportService.importContactsFromVCardStream(
+                userDetails.getId(),
+                body
+            )
+        );
+    }
+
+    @PostMapping(value = "/import/json/stream/ids", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importContactsFromJsonIds(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) {
+        log.info("NDJSON import contacts from JSON endpoint called");
+
+        if (file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+
+        Long userId = userDetails.getId();
+        return ndjsonResponse(out -> {
+            try (InputStream in = file.getInputStream()) {
+                contactImportService.writeImportAsNdjson(out, ids ->
+                    contactImportService.importContactsFromJsonStream(
+                        userId,
+                        in,
+                        ids
+                    )
+                );
+            }
+        });
+    }
+
+    @PostMapping(
+        value = "/import/json/stream/ids",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = NDJSON
+    )
+    public ResponseEntity<StreamingResponseBody> importContactsFromJsonBodyIds(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("NDJSON import contacts from JSON body endpoint called");
+        Long userId = userDetails.getId();
+        return ndjsonResponse(out ->
+            contactImportService.writeImportAsNdjson(out, ids ->
+                contactImportService.importContactsFromJsonStream(
+                    userId,
+                    body,
+                    ids
+                )
+            )
+        );
+    }
+
+    @PostMapping(value = "/import/csv/stream/ids", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importContactsFromCsvIds(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(defaultValue = "false") boolean parallel
+    ) {
+        log.info("NDJSON import contacts from CSV endpoint called");
+
+        if (file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+
+        Long userId = userDetails.getId();
+        return ndjsonResponse(out -> {
+            try (InputStream in = file.getInputStream()) {
+                contactImportService.writeImportAsNdjson(out, ids ->
+                    importCsv(userId, in, parallel, ids)
+                );
+            }
+        });
+    }
+
+    @PostMapping(
+        value = "/import/csv/stream/ids",
+        consumes = CSV,
+        produces = NDJSON
+    )
+    public ResponseEntity<StreamingResponseBody> importContactsFromCsvBodyIds(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body,
+        @RequestParam(defaultValue = "false") boolean parallel
+    ) {
+        log.info("NDJSON import contacts from CSV body endpoint called");
+        Long userId = userDetails.getId();
+        return ndjsonResponse(out ->
+            contactImportService.writeImportAsNdjson(out, ids ->
+                importCsv(userId, body, parallel, ids)
+            )
+        );
+    }
+
+    // Upserts match existing contacts on their normalized email/phone, so
+    // a repeated import only writes the rows that changed
+    @PostMapping("/import/json/upsert")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > upsertContactsFromJson(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        log.info("Upsert import contacts from JSON endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return upsertedResponse(
+                contactImportService.upsertContactsFromJson(
+                    userDetails.getId(),
+                    in
+                )
+            );
+        }
+    }
+
+    @PostMapping(
+        value = "/import/json/upsert",
+        consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > upsertContactsFromJsonBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("Upsert import contacts from JSON body endpoint called");
+        return upsertedResponse(
+            contactImportService.upsertContactsFromJson(
+                userDetails.getId(),
+                body
+            )
+        );
+    }
+
+    @PostMapping("/import/csv/upsert")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > upsertContactsFromCsv(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        log.info("Upsert import contacts from CSV endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return upsertedResponse(
+                contactImportService.upsertContactsFromCsv(
+                    userDetails.getId(),
+                    in
+                )
+            );
+        }
+    }
+
+    @PostMapping(value = "/import/csv/upsert", consumes = CSV)
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > upsertContactsFromCsvBody(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        InputStream body
+    ) {
+        log.info("Upsert import contacts from CSV body endpoint called");
+        return upsertedResponse(
+            contactImportService.upsertContactsFromCsv(
+                userDetails.getId(),
+                body
+            )
+        );
+    }
+
+    // Dry runs validate every row against the ContactRequest rules and
+    // report the failures without writing anything
+    @PostMapping("/import/json/dry-run")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > validateContactsFromJson(@RequestParam("file") MultipartFile file)
+        throws IOException {
+        log.info("Dry run import contacts from JSON endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return validatedResponse(
+                contactImportService.validateContactsFromJson(in)
+            );
+        }
+    }
+
+    @PostMapping(
+        value = "/import/json/dry-run",
+        consumes = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > validateContactsFromJsonBody(InputStream body) {
+        log.info("Dry run import contacts from JSON body endpoint called");
+        return validatedResponse(
+            contactImportService.validateContactsFromJson(body)
+        );
+    }
+
+    @PostMapping("/import/csv/dry-run")
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > validateContactsFromCsv(@RequestParam("file") MultipartFile file)
+        throws IOException {
+        log.info("Dry run import contacts from CSV endpoint called");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                ApiResponse.error("File is empty", null)
+            );
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return validatedResponse(
+                contactImportService.validateContactsFromCsv(in)
+            );
+        }
+    }
+
+    @PostMapping(value = "/import/csv/dry-run", consumes = CSV)
+    public ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > validateContactsFromCsvBody(InputStream body) {
+        log.info("Dry run import contacts from CSV body endpoint called");
+        return validatedResponse(
+            contactImportService.validateContactsFromCsv(body)
+        );
+    }
+
+    private ImportSummaryResponse importCsv(
+        Long userId,
+        InputStream in,
+        boolean parallel,
+        LongConsumer createdIds
+    ) {
+        return parallel
+            ? contactImportService.importContactsFromCsvPipelined(
+                  userId,
+                  in,
+                  createdIds
+              )
+            : contactImportService.importContactsFromCsvStream(
+                  userId,
+                  in,
+                  createdIds
+              );
+    }
+
+    private ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > importedResponse(ImportSummaryResponse summary) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(
+            ApiResponse.success(
+                "Successfully imported " + summary.getImported() + " contacts",
+                summary
+            )
+        );
+    }
+
+    private ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > upsertedResponse(ImportSummaryResponse summary) {
+        return ResponseEntity.ok(
+            ApiResponse.success(
+                "Imported " +
+                    summary.getImported() +
+                    " new contacts, updated " +
+                    summary.getUpdated() +
+                    ", " +
+                    summary.getSkipped() +
+                    " unchanged or skipped",
+                summary
+            )
+        );
+    }
+
+    private ResponseEntity<
+        ApiResponse<ImportSummaryResponse>
+    > validatedResponse(ImportSummaryResponse summary) {
+        return ResponseEntity.ok(
+            ApiResponse.success(
+                "Dry run: " +
+                    summary.getImported() +
+                    " contacts would be imported, " +
+                    summary.getFailed() +
+                    " rows failed validation",
+                summary
+            )
+        );
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjsonResponse(
+        StreamingResponseBody body
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .contentType(MediaType.parseMediaType(NDJSON))
+            .body(body);
+    }
+
+    // Only an explicit application/cbor ranked above application/json;
+    // wildcards and ties keep the JSON default
+    private boolean prefersCbor(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        double cbor = 0;
+        double json = 0;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                    cbor = Math.max(cbor, type.getQualityValue());
+                } else if (
+                    type.equalsTypeAndSubtype(MediaType.APPLICATION_JSON)
+                ) {
+                    json = Math.max(json, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return cbor > json;
+    }
+
+    // 304 while the client's ETag is current, otherwise the export, served
+    // from the cache when the contacts have not changed since it was written
+    private ResponseEntity<StreamingResponseBody> cachedExport(
+        Long userId,
+        String variant,
+        WebRequest request,
+        HttpHeaders headers,
+        StreamingResponseBody body
+    ) {
+        ContactExportCache.Lookup lookup = contactExportCache.lookup(
+            userId,
+            variant
+        );
+        // Also sets the ETag header on the response
+        if (request.checkNotModified(lookup.etag())) {
+            return null;
+        }
+
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(contactExportCache.cached(lookup, body));
+    }
+
+    private Pageable pageRequest(
+        int page,
+        int size,
+        String sortBy,
+        String sortDir
+    ) {
+        Sort sort = sortDir.equalsIgnoreCase("DESC")
+            ? Sort.by(sortBy).descending()
+            : Sort.by(sortBy).ascending();
+        return PageRequest.of(page, size, sort);
+    }
+
+    private int checkPageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new BadRequestException(
+                "Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE
+            );
+        }
+        return size;
+    }
+
+    private String exportVariant(String format, ContactProjection projection) {
+        return projection != null
+            ? format + " " + projection.getFields()
+            : format;
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" means the client explicitly refuses it
+                return (
+                    parts.length == 1 ||
+                    !parts[1].trim().matches("q=0(\\.0*)?")
+                );
+            }
+        }
+        return false;
+    }
 }
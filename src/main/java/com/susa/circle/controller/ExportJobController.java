@@ -0,0 +1,81 @@
+package com.susa.circle.controller;
+
+import com.susa.circle.dto.response.ApiResponse;
+import com.susa.circle.dto.response.ExportJobResponse;
+import com.susa.circle.security.CustomUserDetails;
+import com.susa.circle.service.ExportJobService;
+import java.net.URI;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/contacts/export/jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ExportJobResponse>> createExportJob(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @RequestParam(defaultValue = "json") String format
+    ) {
+        log.info("Create export job endpoint called");
+        ExportJobResponse response = exportJobService.createJob(
+            userDetails.getId(),
+            format
+        );
+        URI location = URI.create(
+            "/api/contacts/export/jobs/" + response.getId()
+        );
+        return ResponseEntity.accepted()
+            .location(location)
+            .body(ApiResponse.success("Export job queued", response));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<ExportJobResponse>> getExportJob(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @PathVariable String jobId
+    ) {
+        log.info("Get export job endpoint called");
+        ExportJobResponse response = exportJobService.getJob(
+            userDetails.getId(),
+            jobId
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    // Returning the file as a Resource lets Spring answer Range requests
+    // with 206 and ResourceRegions, so interrupted downloads can resume
+    @GetMapping("/{jobId}/file")
+    public ResponseEntity<Resource> downloadExportFile(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @PathVariable String jobId
+    ) {
+        log.info("Download export file endpoint called");
+        ExportJobResponse job = exportJobService.getJob(
+            userDetails.getId(),
+            jobId
+        );
+        Resource file = exportJobService.getJobFile(userDetails.getId(), jobId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(
+            MediaType.parseMediaType(job.getFormat().getMediaType())
+        );
+        headers.setContentDispositionFormData(
+            "attachment",
+            "contacts." + job.getFormat().getFileExtension()
+        );
+
+        return ResponseEntity.ok().headers(headers).body(file);
+    }
+}
@@ -0,0 +1,102 @@
+package com.susa.circle.controller;
+
+import com.susa.circle.dto.response.ApiResponse;
+import com.susa.circle.dto.response.ImportUploadResponse;
+import com.susa.circle.security.CustomUserDetails;
+import com.susa.circle.service.ImportUploadService;
+import java.io.InputStream;
+import java.net.URI;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+// Resumable CSV import: POST a session, PUT /chunks/{index} in any order,
+// then POST /commit?totalChunks=N. GET the session to see which chunks are
+// still missing after a dropped connection.
+@RestController
+@RequestMapping("/api/contacts/import/uploads")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportUploadController {
+
+    private final ImportUploadService importUploadService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ImportUploadResponse>> createUpload(
+        @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        log.info("Create import upload endpoint called");
+        ImportUploadResponse response = importUploadService.createSession(
+            userDetails.getId()
+        );
+        URI location = URI.create(
+            "/api/contacts/import/uploads/" + response.getId()
+        );
+        return ResponseEntity.created(location).body(
+            ApiResponse.success("Import upload created", response)
+        );
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<ApiResponse<ImportUploadResponse>> getUpload(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @PathVariable String uploadId
+    ) {
+        log.info("Get import upload endpoint called");
+        ImportUploadResponse response = importUploadService.getSession(
+            userDetails.getId(),
+            uploadId
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<ApiResponse<ImportUploadResponse>> putChunk(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @PathVariable String uploadId,
+        @PathVariable int index,
+        InputStream body
+    ) {
+        log.info("Put import upload chunk endpoint called");
+        ImportUploadResponse response = importUploadService.putChunk(
+            userDetails.getId(),
+            uploadId,
+            index,
+            body
+        );
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    // Also resumes a failed import after its last persisted row
+    @PostMapping("/{uploadId}/commit")
+    public ResponseEntity<ApiResponse<ImportUploadResponse>> commitUpload(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @PathVariable String uploadId,
+        @RequestParam int totalChunks
+    ) {
+        log.info("Commit import upload endpoint called");
+        ImportUploadResponse response = importUploadService.commit(
+            userDetails.getId(),
+            uploadId,
+            totalChunks
+        );
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+            ApiResponse.success("Import upload committed", response)
+        );
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<ApiResponse<Void>> abortUpload(
+        @AuthenticationPrincipal CustomUserDetails userDetails,
+        @PathVariable String uploadId
+    ) {
+        log.info("Abort import upload endpoint called");
+        importUploadService.abort(userDetails.getId(), uploadId);
+        return ResponseEntity.ok(
+            ApiResponse.success("Import upload aborted", null)
+        );
+    }
+}
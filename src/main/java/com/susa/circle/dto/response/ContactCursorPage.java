@@ -0,0 +1,19 @@
+package com.susa.circle.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContactCursorPage {
+
+    private List<ContactResponse> content;
+    private int size;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.susa.circle.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.susa.circle.enums.ExportFormat;
+import com.susa.circle.enums.ExportJobStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportJobResponse {
+
+    private String id;
+    private ExportFormat format;
+    private ExportJobStatus status;
+    private long exportedContacts;
+    private long totalContacts;
+    private Long fileSize;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
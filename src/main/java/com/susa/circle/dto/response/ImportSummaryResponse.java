@@ -0,0 +1,25 @@
+package com.susa.circle.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportSummaryResponse {
+
+    private long imported;
+    // Only reported by the upsert import
+    private Long updated;
+    private long skipped;
+    private long failed;
+    private Long firstId;
+    private Long lastId;
+    private List<ImportRowError> errors;
+}
@@ -0,0 +1,29 @@
+package com.susa.circle.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.susa.circle.enums.ImportUploadStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportUploadResponse {
+
+    private String id;
+    private ImportUploadStatus status;
+    private Integer totalChunks;
+    private int receivedChunks;
+    private List<Integer> missingChunks;
+    private long persistedRows;
+    private long importedContacts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -12,15 +12,35 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
-@Table(name = "contacts")
+@Table(
+    name = "contacts",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_contacts_user_natural_key",
+        columnNames = { "user_id", "natural_key" }
+    ),
+    // Serves the keyset listing (see ContactCursor)
+    indexes = @Index(
+        name = "idx_contacts_user_name",
+        columnList = "user_id, last_name, first_name, id"
+    )
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Contact {
 
+    // Sequence ids (unlike IDENTITY) keep Hibernate JDBC batching enabled
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(
+        strategy = GenerationType.SEQUENCE,
+        generator = "contacts_seq"
+    )
+    @SequenceGenerator(
+        name = "contacts_seq",
+        sequenceName = "contacts_seq",
+        allocationSize = 50
+    )
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -32,6 +52,14 @@ public class Contact {
     @Column(length = 100)
     private String title;
 
+    // Set by the upsert import (see ContactKeys); null until then and
+    // after a manual edit, so only the upsert path has to keep it unique
+    @Column(name = "natural_key", length = 300)
+    private String naturalKey;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -16,7 +16,15 @@ import lombok.NoArgsConstructor;
 public class ContactPhone {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(
+        strategy = GenerationType.SEQUENCE,
+        generator = "contact_phones_seq"
+    )
+    @SequenceGenerator(
+        name = "contact_phones_seq",
+        sequenceName = "contact_phones_seq",
+        allocationSize = 50
+    )
     private Long id;
 
     @Column(nullable = false, length = 20)
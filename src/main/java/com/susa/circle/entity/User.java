@@ -48,6 +48,13 @@ public class User {
     @Builder.Default
     private Boolean active = true;
 
+    // Maintained by every write to the user's contacts, so unfiltered
+    // listings know their total without counting. Null until backfilled by
+    // ContactCountInitializer.
+    @Column(name = "contact_count")
+    @Builder.Default
+    private Long contactCount = 0L;
+
     @OneToMany(
         mappedBy = "user",
         cascade = CascadeType.ALL,
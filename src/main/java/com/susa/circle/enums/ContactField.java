@@ -0,0 +1,29 @@
+package com.susa.circle.enums;
+
+public enum ContactField {
+    ID("id", "Id"),
+    FIRST_NAME("firstName", "First Name"),
+    LAST_NAME("lastName", "Last Name"),
+    TITLE("title", "Title"),
+    PRIMARY_EMAIL("primaryEmail", "Primary Email"),
+    EMAILS("emails", "Emails"),
+    PHONES("phones", "Phones"),
+    CREATED_AT("createdAt", "Created At"),
+    UPDATED_AT("updatedAt", "Updated At");
+
+    private final String fieldName;
+    private final String csvHeader;
+
+    ContactField(String fieldName, String csvHeader) {
+        this.fieldName = fieldName;
+        this.csvHeader = csvHeader;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getCsvHeader() {
+        return csvHeader;
+    }
+}
@@ -0,0 +1,8 @@
+package com.susa.circle.enums;
+
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+}
@@ -0,0 +1,9 @@
+package com.susa.circle.enums;
+
+public enum ImportUploadStatus {
+    RECEIVING,
+    COMMITTED,
+    COMPLETED,
+    FAILED,
+    ABORTED,
+}
@@ -0,0 +1,28 @@
+package com.susa.circle.event;
+
+import com.susa.circle.dto.response.ContactResponse;
+
+// Published inside the transaction that creates, updates or deletes a user's
+// contacts. Listeners that cache anything derived from them act on commit.
+// Single-contact writes also carry the contact saved or the id deleted, so a
+// listener can patch what it holds; bulk changes (imports) carry neither.
+public record ContactsChangedEvent(
+    Long userId,
+    ContactResponse saved,
+    Long deletedId
+) {
+    public ContactsChangedEvent(Long userId) {
+        this(userId, null, null);
+    }
+
+    public static ContactsChangedEvent saved(
+        Long userId,
+        ContactResponse contact
+    ) {
+        return new ContactsChangedEvent(userId, contact, null);
+    }
+
+    public static ContactsChangedEvent deleted(Long userId, Long contactId) {
+        return new ContactsChangedEvent(userId, null, contactId);
+    }
+}
@@ -4,6 +4,7 @@ import com.susa.circle.dto.response.ApiResponse;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -37,6 +38,23 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<?>> handleTooManyRequestsException(
+        TooManyRequestsException ex
+    ) {
+        log.warn("Request rejected: {}", ex.getMessage());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(
+            HttpStatus.TOO_MANY_REQUESTS
+        );
+        if (ex.getRetryAfter() != null) {
+            response.header(
+                HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds()))
+            );
+        }
+        return response.body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiResponse<?>> handleBadCredentialsException(
         BadCredentialsException ex
@@ -0,0 +1,169 @@
+package com.susa.circle.mapper;
+
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// Reads and writes the "value (TYPE); value (TYPE)" format of the Emails and
+// Phones CSV columns in a single pass, without regex or String.split.
+public class ContactCellCodec {
+
+    private static final String SEPARATOR = "; ";
+
+    // Keyed by lower-cased name, for case-insensitive lookups
+    private static final Map<String, EmailType> EMAIL_TYPES = byName(
+        EmailType.values()
+    );
+    private static final Map<String, PhoneType> PHONE_TYPES = byName(
+        PhoneType.values()
+    );
+
+    private ContactCellCodec() {}
+
+    public static List<EmailRequest> parseEmails(String cell) {
+        List<EmailRequest> emails = new ArrayList<>();
+        parse(cell, EMAIL_TYPES, EmailType.PERSONAL, (email, type) ->
+            emails.add(new EmailRequest(email, type))
+        );
+        return emails;
+    }
+
+    public static List<PhoneRequest> parsePhones(String cell) {
+        List<PhoneRequest> phones = new ArrayList<>();
+        parse(cell, PHONE_TYPES, PhoneType.PERSONAL, (phone, type) ->
+            phones.add(new PhoneRequest(phone, type))
+        );
+        return phones;
+    }
+
+    public static String formatEmails(List<ContactEmail> emails) {
+        if (emails.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(emails.size() * 40);
+        for (ContactEmail email : emails) {
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+            appendEntry(sb, email.getEmail(), email.getType());
+        }
+        return sb.toString();
+    }
+
+    public static String formatPhones(List<ContactPhone> phones) {
+        if (phones.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(phones.size() * 32);
+        for (ContactPhone phone : phones) {
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+            appendEntry(sb, phone.getPhoneNumber(), phone.getType());
+        }
+        return sb.toString();
+    }
+
+    private static void appendEntry(
+        StringBuilder sb,
+        String value,
+        Enum<?> type
+    ) {
+        sb.append(value).append(" (").append(type).append(')');
+    }
+
+    // Entries without a "(TYPE)" suffix are dropped and unknown types fall
+    // back to the given default, matching what the import always accepted.
+    private static <T extends Enum<T>> void parse(
+        String cell,
+        Map<String, T> types,
+        T fallback,
+        BiConsumer<String, T> sink
+    ) {
+        int length = cell.length();
+        int start = 0;
+        while (start < length) {
+            int end = cell.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            parseEntry(cell, start, end, types, fallback, sink);
+            start = end + 1;
+        }
+    }
+
+    private static <T extends Enum<T>> void parseEntry(
+        String cell,
+        int start,
+        int end,
+        Map<String, T> types,
+        T fallback,
+        BiConsumer<String, T> sink
+    ) {
+        start = skipLeadingWhitespace(cell, start, end);
+        end = skipTrailingWhitespace(cell, start, end);
+
+        // The type is the last parenthesised group with a non-empty body
+        for (int open = end - 1; open > start; open--) {
+            if (cell.charAt(open) != '(') {
+                continue;
+            }
+            int close = cell.indexOf(')', open + 1);
+            if (close < 0 || close >= end || close == open + 1) {
+                continue;
+            }
+            int valueEnd = skipTrailingWhitespace(cell, start, open);
+            int typeStart = skipLeadingWhitespace(cell, open + 1, close);
+            int typeEnd = skipTrailingWhitespace(cell, typeStart, close);
+            sink.accept(
+                cell.substring(start, valueEnd),
+                resolveType(cell, typeStart, typeEnd, types, fallback)
+            );
+            return;
+        }
+    }
+
+    private static <T extends Enum<T>> T resolveType(
+        String cell,
+        int start,
+        int end,
+        Map<String, T> types,
+        T fallback
+    ) {
+        return types.getOrDefault(
+            cell.substring(start, end).toLowerCase(Locale.ROOT),
+            fallback
+        );
+    }
+
+    private static <T extends Enum<T>> Map<String, T> byName(T[] values) {
+        Map<String, T> types = new HashMap<>();
+        for (T value : values) {
+            types.put(value.name().toLowerCase(Locale.ROOT), value);
+        }
+        return Map.copyOf(types);
+    }
+
+    private static int skipLeadingWhitespace(String cell, int start, int end) {
+        while (start < end && cell.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipTrailingWhitespace(String cell, int start, int end) {
+        while (end > start && cell.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,192 @@
+package com.susa.circle.mapper;
+
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+// Keys used by the upsert import. Imported and stored contacts get their
+// natural key from the same code, so that they match.
+public class ContactKeys {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String NAME_PREFIX = "n:";
+
+    private ContactKeys() {}
+
+    // "e:" + the smallest lowercased email, else "p:" + the smallest
+    // digits-only phone number, else "n:" + the normalized first and last
+    // name; null only for a contact with none of them (never matched). A
+    // name key is shared by every contact of that name, so it is only used
+    // numbered (see numbered).
+    public static String naturalKey(ContactRequest request) {
+        List<String> emails = new ArrayList<>();
+        if (request.getEmails() != null) {
+            for (EmailRequest email : request.getEmails()) {
+                emails.add(email.getEmail());
+            }
+        }
+        List<String> phones = new ArrayList<>();
+        if (request.getPhones() != null) {
+            for (PhoneRequest phone : request.getPhones()) {
+                phones.add(phone.getPhoneNumber());
+            }
+        }
+        return naturalKey(
+            request.getFirstName(),
+            request.getLastName(),
+            emails,
+            phones
+        );
+    }
+
+    // The same key for a stored contact, which PostgresUpsertImporter
+    // backfills with it
+    public static String naturalKey(
+        String firstName,
+        String lastName,
+        Collection<String> emails,
+        Collection<String> phoneNumbers
+    ) {
+        String email = smallest(emails, ContactKeys::normalizeEmail);
+        if (email != null) {
+            return "e:" + email;
+        }
+        String phone = smallest(phoneNumbers, ContactKeys::normalizePhone);
+        if (phone != null) {
+            return "p:" + phone;
+        }
+
+        String first = normalizeName(firstName);
+        String last = normalizeName(lastName);
+        if (first.isEmpty() && last.isEmpty()) {
+            return null;
+        }
+        return NAME_PREFIX + first + "|" + last;
+    }
+
+    public static boolean isNameKey(String naturalKey) {
+        return naturalKey.startsWith(NAME_PREFIX);
+    }
+
+    // Same-name contacts without an email or phone are told apart by their
+    // 1-based position among them: in the file for imported ones, by id for
+    // stored ones
+    public static String numbered(String nameKey, int ordinal) {
+        return nameKey + "#" + ordinal;
+    }
+
+    // The name key a numbered key was made from
+    public static String unnumbered(String numberedKey) {
+        return numberedKey.substring(0, numberedKey.lastIndexOf('#'));
+    }
+
+    // 0 if the key isn't numbered after all
+    public static int ordinal(String numberedKey) {
+        try {
+            return Integer.parseInt(
+                numberedKey.substring(numberedKey.lastIndexOf('#') + 1)
+            );
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String smallest(
+        Collection<String> values,
+        UnaryOperator<String> normalizer
+    ) {
+        String smallest = null;
+        for (String value : values) {
+            String normalized = normalizer.apply(value);
+            if (
+                normalized != null &&
+                (smallest == null || normalized.compareTo(smallest) < 0)
+            ) {
+                smallest = normalized;
+            }
+        }
+        return smallest;
+    }
+
+    // SHA-256 over every imported field, independent of email/phone order
+    public static String contentHash(ContactRequest request) {
+        List<String> emails = new ArrayList<>();
+        if (request.getEmails() != null) {
+            for (EmailRequest email : request.getEmails()) {
+                emails.add(email.getEmail() + "|" + email.getType());
+            }
+        }
+        List<String> phones = new ArrayList<>();
+        if (request.getPhones() != null) {
+            for (PhoneRequest phone : request.getPhones()) {
+                phones.add(phone.getPhoneNumber() + "|" + phone.getType());
+            }
+        }
+        Collections.sort(emails);
+        Collections.sort(phones);
+
+        StringBuilder content = new StringBuilder()
+            .append(request.getFirstName())
+            .append('\0')
+            .append(request.getLastName())
+            .append('\0')
+            .append(request.getTitle() != null ? request.getTitle() : "")
+            .append('\0');
+        emails.forEach(email -> content.append(email).append('\n'));
+        content.append('\0');
+        phones.forEach(phone -> content.append(phone).append('\n'));
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                digest.digest(
+                    content.toString().getBytes(StandardCharsets.UTF_8)
+                )
+            );
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lowercased, with runs of whitespace collapsed to one space
+    private static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(name.trim())
+            .replaceAll(" ")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizePhone(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.isEmpty() ? null : digits.toString();
+    }
+}
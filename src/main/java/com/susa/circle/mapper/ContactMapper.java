@@ -1,13 +1,16 @@
 package com.susa.circle.mapper;
 
+import com.susa.circle.dto.request.ContactRequest;
 import com.susa.circle.dto.response.ContactResponse;
 import com.susa.circle.dto.response.EmailResponse;
 import com.susa.circle.dto.response.PhoneResponse;
 import com.susa.circle.entity.Contact;
 import com.susa.circle.entity.ContactEmail;
 import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.entity.User;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.apache.commons.csv.CSVRecord;
 
 public class ContactMapper {
 
@@ -24,6 +27,70 @@ public class ContactMapper {
             .build();
     }
 
+    public static Contact toEntity(User user, ContactRequest request) {
+        Contact contact = Contact.builder()
+            .firstName(request.getFirstName())
+            .lastName(request.getLastName())
+            .title(request.getTitle())
+            .user(user)
+            .build();
+
+        if (request.getEmails() != null) {
+            List<ContactEmail> emails = request
+                .getEmails()
+                .stream()
+                .map(emailReq ->
+                    ContactEmail.builder()
+                        .email(emailReq.getEmail())
+                        .type(emailReq.getType())
+                        .contact(contact)
+                        .build()
+                )
+                .collect(Collectors.toList());
+            contact.setEmails(emails);
+        }
+
+        if (request.getPhones() != null) {
+            List<ContactPhone> phones = request
+                .getPhones()
+                .stream()
+                .map(phoneReq ->
+                    ContactPhone.builder()
+                        .phoneNumber(phoneReq.getPhoneNumber())
+                        .type(phoneReq.getType())
+                        .contact(contact)
+                        .build()
+                )
+                .collect(Collectors.toList());
+            contact.setPhones(phones);
+        }
+
+        return contact;
+    }
+
+    public static ContactRequest toRequest(CSVRecord record) {
+        ContactRequest request = new ContactRequest();
+        request.setFirstName(record.get("First Name"));
+        request.setLastName(record.get("Last Name"));
+        request.setTitle(
+            record.get("Title").isEmpty() ? null : record.get("Title")
+        );
+
+        // Parse emails
+        String emailsStr = record.get("Emails");
+        if (emailsStr != null && !emailsStr.trim().isEmpty()) {
+            request.setEmails(ContactCellCodec.parseEmails(emailsStr));
+        }
+
+        // Parse phones
+        String phonesStr = record.get("Phones");
+        if (phonesStr != null && !phonesStr.trim().isEmpty()) {
+            request.setPhones(ContactCellCodec.parsePhones(phonesStr));
+        }
+
+        return request;
+    }
+
     private static List<EmailResponse> toEmailResponses(
         List<ContactEmail> emails
     ) {
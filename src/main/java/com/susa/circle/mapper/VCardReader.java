@@ -0,0 +1,304 @@
+package com.susa.circle.mapper;
+
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+// Pull parser for vCard 3.0 and 4.0. Folded lines are joined while reading,
+// one physical line ahead, so only the current card is ever held in memory.
+// Properties other than N, FN, TITLE, EMAIL and TEL are ignored.
+public class VCardReader implements Closeable {
+
+    private final BufferedReader reader;
+    private String lookahead;
+
+    public VCardReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered
+            ? buffered
+            : new BufferedReader(reader);
+    }
+
+    // Returns null once there are no more cards. A card without N and FN
+    // comes back with null names.
+    public ContactRequest next() throws IOException {
+        String line;
+        do {
+            line = nextLine();
+            if (line == null) {
+                return null;
+            }
+        } while (!line.trim().equalsIgnoreCase("BEGIN:VCARD"));
+
+        ContactRequest request = new ContactRequest();
+        List<EmailRequest> emails = new ArrayList<>();
+        List<PhoneRequest> phones = new ArrayList<>();
+        String formattedName = null;
+
+        while ((line = nextLine()) != null) {
+            Property property = parseProperty(line);
+            if (property == null) {
+                continue;
+            }
+
+            switch (property.name()) {
+                case "END" -> {
+                    if (
+                        request.getFirstName() == null && formattedName != null
+                    ) {
+                        splitFormattedName(request, formattedName);
+                    }
+                    request.setEmails(emails);
+                    request.setPhones(phones);
+                    return request;
+                }
+                case "N" -> {
+                    List<String> parts = splitComponents(property.value());
+                    String family = parts.get(0).trim();
+                    String given = parts.size() > 1 ? parts.get(1).trim() : "";
+                    if (!family.isEmpty() || !given.isEmpty()) {
+                        request.setFirstName(given);
+                        request.setLastName(family);
+                    }
+                }
+                case "FN" -> formattedName = unescape(property.value()).trim();
+                case "TITLE" -> {
+                    String title = unescape(property.value()).trim();
+                    request.setTitle(title.isEmpty() ? null : title);
+                }
+                case "EMAIL" -> {
+                    String email = unescape(property.value()).trim();
+                    if (!email.isEmpty()) {
+                        emails.add(
+                            new EmailRequest(email, emailType(property.types()))
+                        );
+                    }
+                }
+                case "TEL" -> {
+                    String phone = unescape(property.value()).trim();
+                    // 4.0 defaults to a tel: URI
+                    if (phone.regionMatches(true, 0, "tel:", 0, 4)) {
+                        phone = phone.substring(4);
+                    }
+                    if (!phone.isEmpty()) {
+                        phones.add(
+                            new PhoneRequest(phone, phoneType(property.types()))
+                        );
+                    }
+                }
+                default -> {}
+            }
+        }
+        throw new IOException("vCard is missing END:VCARD");
+    }
+
+    // The remaining cards; read errors come out as UncheckedIOException
+    public Iterator<ContactRequest> iterator() {
+        return new Iterator<>() {
+            private ContactRequest card;
+
+            @Override
+            public boolean hasNext() {
+                if (card == null) {
+                    try {
+                        card = VCardReader.this.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return card != null;
+            }
+
+            @Override
+            public ContactRequest next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ContactRequest next = card;
+                card = null;
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // One logical line: continuation lines start with a space or a tab
+    private String nextLine() throws IOException {
+        String line = lookahead != null ? lookahead : reader.readLine();
+        lookahead = null;
+        if (line == null) {
+            return null;
+        }
+
+        StringBuilder unfolded = null;
+        String next;
+        while ((next = reader.readLine()) != null && isContinuation(next)) {
+            if (unfolded == null) {
+                unfolded = new StringBuilder(line);
+            }
+            unfolded.append(next, 1, next.length());
+        }
+        lookahead = next;
+        return unfolded != null ? unfolded.toString() : line;
+    }
+
+    private static boolean isContinuation(String line) {
+        return (
+            !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t')
+        );
+    }
+
+    // [group.]NAME *(;PARAM[=VALUE[,VALUE]]) : VALUE
+    private static Property parseProperty(String line) {
+        int colon = -1;
+        boolean quoted = false;
+        List<String> params = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == ';' || c == ':')) {
+                params.add(line.substring(start, i));
+                start = i + 1;
+                if (c == ':') {
+                    colon = i;
+                    break;
+                }
+            }
+        }
+        if (colon < 0) {
+            return null;
+        }
+
+        String name = params.get(0).trim();
+        int dot = name.lastIndexOf('.');
+        name = name.substring(dot + 1).toUpperCase(Locale.ROOT);
+
+        List<String> types = new ArrayList<>();
+        for (String param : params.subList(1, params.size())) {
+            int equals = param.indexOf('=');
+            if (equals < 0) {
+                // 2.1-style bare type, e.g. TEL;WORK;VOICE
+                types.add(param.trim().toLowerCase(Locale.ROOT));
+            } else if (
+                param.substring(0, equals).trim().equalsIgnoreCase("TYPE")
+            ) {
+                for (String type : param.substring(equals + 1).split(",")) {
+                    types.add(
+                        type.replace("\"", "").trim().toLowerCase(Locale.ROOT)
+                    );
+                }
+            }
+        }
+        return new Property(name, types, line.substring(colon + 1));
+    }
+
+    // Splits a structured value on unescaped semicolons and unescapes parts
+    private static List<String> splitComponents(String value) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ';') {
+                parts.add(unescape(value.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        parts.add(unescape(value.substring(start)));
+        return parts;
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                unescaped.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    // "John Ronald Smith" -> John / Ronald Smith
+    private static void splitFormattedName(
+        ContactRequest request,
+        String formattedName
+    ) {
+        if (formattedName.isEmpty()) {
+            return;
+        }
+        int space = formattedName.indexOf(' ');
+        if (space < 0) {
+            request.setFirstName(formattedName);
+            request.setLastName("");
+        } else {
+            request.setFirstName(formattedName.substring(0, space));
+            request.setLastName(formattedName.substring(space + 1).trim());
+        }
+    }
+
+    // Mirrors the TYPE values VCardWriter writes. An email or phone with
+    // only unrecognised types is OTHER, one without any type PERSONAL.
+    private static EmailType emailType(List<String> types) {
+        boolean other = false;
+        for (String type : types) {
+            switch (type) {
+                case "work":
+                    return EmailType.WORK;
+                case "home", "personal":
+                    return EmailType.PERSONAL;
+                case "internet", "pref", "x400":
+                    break;
+                default:
+                    other = true;
+            }
+        }
+        return other ? EmailType.OTHER : EmailType.PERSONAL;
+    }
+
+    private static PhoneType phoneType(List<String> types) {
+        boolean other = false;
+        for (String type : types) {
+            switch (type) {
+                case "work":
+                    return PhoneType.WORK;
+                case "home":
+                    return PhoneType.HOME;
+                case "cell", "mobile", "personal":
+                    return PhoneType.PERSONAL;
+                case "pref":
+                    break;
+                default:
+                    other = true;
+            }
+        }
+        return other ? PhoneType.OTHER : PhoneType.PERSONAL;
+    }
+
+    private record Property(String name, List<String> types, String value) {}
+}
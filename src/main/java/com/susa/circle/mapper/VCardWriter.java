@@ -0,0 +1,184 @@
+package com.susa.circle.mapper;
+
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+// Writes contacts as vCard 3.0 or 4.0, one card per call, folding lines at
+// 75 octets. Keeps nothing between cards, so it can be fed from a cursor.
+public class VCardWriter {
+
+    public static final String VERSION_3 = "3.0";
+    public static final String VERSION_4 = "4.0";
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+    private final String version;
+    private final StringBuilder line = new StringBuilder(128);
+
+    public VCardWriter(Writer writer, String version) {
+        if (!isSupportedVersion(version)) {
+            throw new IllegalArgumentException(
+                "Unsupported vCard version: " + version
+            );
+        }
+        this.writer = writer;
+        this.version = version;
+    }
+
+    public static boolean isSupportedVersion(String version) {
+        return VERSION_3.equals(version) || VERSION_4.equals(version);
+    }
+
+    public void write(Contact contact) throws IOException {
+        writeLine("BEGIN:VCARD");
+        writeLine("VERSION:" + version);
+
+        line
+            .append("N:")
+            .append(escape(contact.getLastName()))
+            .append(';')
+            .append(escape(contact.getFirstName()))
+            .append(";;;");
+        flushLine();
+        line.append("FN:").append(escape(formattedName(contact)));
+        flushLine();
+        if (contact.getTitle() != null && !contact.getTitle().isEmpty()) {
+            line.append("TITLE:").append(escape(contact.getTitle()));
+            flushLine();
+        }
+
+        for (ContactEmail email : contact.getEmails()) {
+            line.append("EMAIL;TYPE=");
+            if (VERSION_3.equals(version)) {
+                line.append("INTERNET,");
+            }
+            line
+                .append(typeParam(emailType(email.getType())))
+                .append(':')
+                .append(escape(email.getEmail()));
+            flushLine();
+        }
+        for (ContactPhone phone : contact.getPhones()) {
+            line.append("TEL;");
+            // 4.0 would otherwise expect a tel: URI
+            if (VERSION_4.equals(version)) {
+                line.append("VALUE=text;");
+            }
+            line
+                .append("TYPE=")
+                .append(typeParam(phoneType(phone.getType())))
+                .append(':')
+                .append(escape(phone.getPhoneNumber()));
+            flushLine();
+        }
+
+        writeLine("END:VCARD");
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeLine(String value) throws IOException {
+        line.append(value);
+        flushLine();
+    }
+
+    // Folds before a line would exceed 75 octets of UTF-8, never inside a
+    // surrogate pair. Continuation lines start with a space.
+    private void flushLine() throws IOException {
+        int octets = 0;
+        int start = 0;
+        int i = 0;
+        while (i < line.length()) {
+            int codePoint = line.codePointAt(i);
+            int size = utf8Length(codePoint);
+            if (octets + size > MAX_LINE_OCTETS) {
+                writer.append(line, start, i).append("\r\n ");
+                start = i;
+                // The leading space counts towards the next line
+                octets = 1;
+            }
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        writer.append(line, start, line.length()).append("\r\n");
+        line.setLength(0);
+    }
+
+    private String typeParam(String type) {
+        return VERSION_3.equals(version) ? type.toUpperCase(Locale.ROOT) : type;
+    }
+
+    private static String formattedName(Contact contact) {
+        String lastName = contact.getLastName();
+        if (lastName == null || lastName.isEmpty()) {
+            return contact.getFirstName();
+        }
+        return contact.getFirstName() + " " + lastName;
+    }
+
+    // The reverse of VCardReader's mapping
+    private static String emailType(EmailType type) {
+        return switch (type) {
+            case WORK -> "work";
+            case PERSONAL -> "home";
+            case OTHER -> "other";
+        };
+    }
+
+    private static String phoneType(PhoneType type) {
+        return switch (type) {
+            case WORK -> "work";
+            case HOME -> "home";
+            case PERSONAL -> "cell";
+            case OTHER -> "voice";
+        };
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case ',' -> "\\,";
+                case ';' -> "\\;";
+                case '\n' -> "\\n";
+                case '\r' -> "";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8);
+                escaped.append(value, 0, i);
+            }
+            if (replacement != null) {
+                escaped.append(replacement);
+            } else if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
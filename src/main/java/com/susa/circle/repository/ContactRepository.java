@@ -1,8 +1,12 @@
 package com.susa.circle.repository;
 
 import com.susa.circle.entity.Contact;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,12 +14,16 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
+    // Case-insensitive substring match on first or last name
+    String SEARCH_CONDITION =
+        "(LOWER(c.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+        "LOWER(c.lastName) LIKE LOWER(CONCAT('%', :search, '%')))";
+
     Page<Contact> findByUserId(Long userId, Pageable pageable);
 
     @Query(
         "SELECT c FROM Contact c WHERE c.user.id = :userId AND " +
-            "(LOWER(c.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(c.lastName) LIKE LOWER(CONCAT('%', :search, '%')))"
+            SEARCH_CONDITION
     )
     Page<Contact> searchContactsByUserId(
         @Param("userId") Long userId,
@@ -23,5 +31,107 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
         Pageable pageable
     );
 
+    // Pages of ids for ContactService, which loads the contacts and their
+    // emails and phones for a whole page with the two queries below. The
+    // unfiltered listing takes its total from users.contact_count, so it
+    // only needs a Slice.
+    @Query("SELECT c.id FROM Contact c WHERE c.user.id = :userId")
+    Slice<Long> findIdSliceByUserId(
+        @Param("userId") Long userId,
+        Pageable pageable
+    );
+
+    @Query(
+        value = "SELECT c.id FROM Contact c WHERE c.user.id = :userId AND " +
+            SEARCH_CONDITION,
+        countQuery = "SELECT COUNT(c) FROM Contact c " +
+            "WHERE c.user.id = :userId AND " +
+            SEARCH_CONDITION
+    )
+    Page<Long> searchContactIdsByUserId(
+        @Param("userId") Long userId,
+        @Param("search") String search,
+        Pageable pageable
+    );
+
+    @Query(
+        "SELECT c.id FROM Contact c WHERE c.user.id = :userId AND " +
+            SEARCH_CONDITION
+    )
+    Slice<Long> searchContactIdSliceByUserId(
+        @Param("userId") Long userId,
+        @Param("search") String search,
+        Pageable pageable
+    );
+
+    // Keyset pages in (last_name, first_name, id) order, starting after the
+    // given key. user_id leads the row value, so with the equality on it the
+    // predicate is a single range of idx_contacts_user_name.
+    @Query(
+        value = "SELECT c.id FROM contacts c WHERE c.user_id = :userId AND " +
+            "(c.user_id, c.last_name, c.first_name, c.id) > " +
+            "(:userId, :lastName, :firstName, :afterId) " +
+            "ORDER BY c.last_name, c.first_name, c.id LIMIT :limit",
+        nativeQuery = true
+    )
+    List<Long> findIdsByUserIdAfterName(
+        @Param("userId") Long userId,
+        @Param("lastName") String lastName,
+        @Param("firstName") String firstName,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
+    @Query(
+        value = "SELECT c.id FROM contacts c WHERE c.user_id = :userId AND " +
+            "(c.user_id, c.last_name, c.first_name, c.id) > " +
+            "(:userId, :lastName, :firstName, :afterId) AND " +
+            "(LOWER(c.first_name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(c.last_name) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "ORDER BY c.last_name, c.first_name, c.id LIMIT :limit",
+        nativeQuery = true
+    )
+    List<Long> searchIdsByUserIdAfterName(
+        @Param("userId") Long userId,
+        @Param("search") String search,
+        @Param("lastName") String lastName,
+        @Param("firstName") String firstName,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
+    // Two bags can't be fetched in one query, so emails and phones each get
+    // their own; the second initializes the contacts loaded by the first
+    @Query(
+        "SELECT c FROM Contact c LEFT JOIN FETCH c.emails WHERE c.id IN :ids"
+    )
+    List<Contact> findAllWithEmailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "SELECT c FROM Contact c LEFT JOIN FETCH c.phones WHERE c.id IN :ids"
+    )
+    List<Contact> findAllWithPhonesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The same pair for all of a user's contacts, for ContactSearchIndex
+    @Query(
+        "SELECT c FROM Contact c LEFT JOIN FETCH c.emails " +
+            "WHERE c.user.id = :userId"
+    )
+    List<Contact> findAllWithEmailsByUserId(@Param("userId") Long userId);
+
+    @Query(
+        "SELECT c FROM Contact c LEFT JOIN FETCH c.phones " +
+            "WHERE c.user.id = :userId"
+    )
+    List<Contact> findAllWithPhonesByUserId(@Param("userId") Long userId);
+
+    List<Contact> findByUserIdAndIdGreaterThanOrderByIdAsc(
+        Long userId,
+        Long afterId,
+        Limit limit
+    );
+
+    long countByUserId(Long userId);
+
     boolean existsByIdAndUserId(Long id, Long userId);
 }
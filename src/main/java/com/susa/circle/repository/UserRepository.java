@@ -3,6 +3,9 @@ package com.susa.circle.repository;
 import com.susa.circle.entity.User;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -14,4 +17,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     boolean existsByPhoneNumber(String phoneNumber);
+
+    @Query("SELECT u.contactCount FROM User u WHERE u.id = :userId")
+    Optional<Long> findContactCountById(@Param("userId") Long userId);
+
+    // Call in the transaction that adds or removes the contacts. Left alone
+    // while the count is still null, the backfill will count them.
+    @Modifying
+    @Query(
+        "UPDATE User u SET u.contactCount = u.contactCount + :delta " +
+            "WHERE u.id = :userId AND u.contactCount IS NOT NULL"
+    )
+    int adjustContactCount(
+        @Param("userId") Long userId,
+        @Param("delta") long delta
+    );
 }
@@ -0,0 +1,97 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.exception.BadRequestException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+
+// Continuation token of the keyset listing: the (lastName, firstName, id)
+// of the last contact on a page. The next page starts right after that key,
+// so it costs one index range scan however deep it is. Clients only see an
+// opaque URL-safe string.
+public final class ContactCursor {
+
+    private static final byte VERSION = 1;
+
+    // Sorts before every contact: no id is 0 and "" is the smallest name
+    static final ContactCursor FIRST = new ContactCursor("", "", 0L);
+
+    static final Sort ORDER = Sort.by("lastName", "firstName", "id");
+
+    private final String lastName;
+    private final String firstName;
+    private final Long id;
+
+    private ContactCursor(String lastName, String firstName, Long id) {
+        this.lastName = lastName;
+        this.firstName = firstName;
+        this.id = id;
+    }
+
+    // A missing or blank token asks for the first page
+    public static ContactCursor parse(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+
+        try (
+            DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token))
+            )
+        ) {
+            if (in.readByte() != VERSION) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            long id = in.readLong();
+            String lastName = in.readUTF();
+            String firstName = in.readUTF();
+            if (in.available() > 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ContactCursor(lastName, firstName, id);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    static ContactCursor after(ContactResponse contact) {
+        return new ContactCursor(
+            contact.getLastName(),
+            contact.getFirstName(),
+            contact.getId()
+        );
+    }
+
+    String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(id);
+            out.writeUTF(lastName);
+            out.writeUTF(firstName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(bytes.toByteArray());
+    }
+
+    String getLastName() {
+        return lastName;
+    }
+
+    String getFirstName() {
+        return firstName;
+    }
+
+    Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,262 @@
+package com.susa.circle.service;
+
+import com.susa.circle.event.ContactsChangedEvent;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Keeps the last export of each user and variant (format, fields, encoding)
+// on disk, tagged with the user's contact version. The version is bumped on
+// every committed ContactsChangedEvent, so a repeat export of an unchanged
+// address book is a file copy, and a client holding the ETag gets a 304
+// without any query. Versions live in memory: they reset on restart, which
+// the random epoch in the ETag accounts for, and writes made by another
+// instance are not seen.
+@Service
+@Slf4j
+public class ContactExportCache {
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<CacheKey, Artifact> artifacts = new ConcurrentHashMap<>();
+    private final String epoch = Long.toHexString(
+        new SecureRandom().nextLong()
+    );
+
+    @Value("${contacts.export.cache.dir:${java.io.tmpdir}/circle-export-cache}")
+    private String cacheDirectory;
+
+    @Value("${contacts.export.cache.ttl:PT1H}")
+    private Duration ttl;
+
+    private Path cacheDir;
+
+    @PostConstruct
+    void createCacheDirectory() throws IOException {
+        cacheDir = Files.createDirectories(Paths.get(cacheDirectory));
+        log.info("Export artifacts are cached in {}", cacheDir);
+    }
+
+    // Taken before the export reads anything, so a change committed while
+    // it runs leaves the artifact with an already outdated version
+    public Lookup lookup(Long userId, String variant) {
+        long version = version(userId).get();
+        return new Lookup(
+            userId,
+            variant,
+            version,
+            "\"" +
+                epoch +
+                "-" +
+                version +
+                "-" +
+                Integer.toHexString(variant.hashCode()) +
+                "\""
+        );
+    }
+
+    // Serves the cached artifact if it is still current, otherwise runs the
+    // export and copies it to a new artifact as it goes to the client
+    public StreamingResponseBody cached(
+        Lookup lookup,
+        StreamingResponseBody export
+    ) {
+        return out -> {
+            Artifact artifact = artifacts.get(lookup.key());
+            if (artifact != null && artifact.version() == lookup.version()) {
+                try {
+                    Files.copy(artifact.file(), out);
+                    log.debug("Served cached export {}", lookup.key());
+                    return;
+                } catch (NoSuchFileException e) {
+                    // Purged in the meantime, export again
+                }
+            }
+
+            Path partial = cacheDir.resolve(UUID.randomUUID() + ".part");
+            OutputStream copy;
+            try {
+                copy = new BufferedOutputStream(Files.newOutputStream(partial));
+            } catch (IOException e) {
+                log.warn("Could not create cached export {}", partial, e);
+                export.writeTo(out);
+                return;
+            }
+
+            TeeOutputStream tee = new TeeOutputStream(out, copy);
+            try (copy) {
+                export.writeTo(tee);
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(partial);
+                throw e;
+            }
+            if (tee.copyFailed()) {
+                deleteQuietly(partial);
+            } else {
+                store(lookup, partial);
+            }
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactsChanged(ContactsChangedEvent event) {
+        version(event.userId()).incrementAndGet();
+        artifacts
+            .keySet()
+            .removeIf(key -> key.userId().equals(event.userId()));
+    }
+
+    @Scheduled(
+        fixedDelayString = "${contacts.export.cache.cleanup-interval:PT10M}"
+    )
+    public void purgeExpiredArtifacts() {
+        Instant cutoff = Instant.now().minus(ttl);
+        artifacts
+            .values()
+            .removeIf(artifact -> artifact.createdAt().isBefore(cutoff));
+
+        // Replaced and invalidated artifacts are only deleted here, once a
+        // download that might still be reading them has had time to finish
+        Set<Path> live = artifacts
+            .values()
+            .stream()
+            .map(Artifact::file)
+            .collect(Collectors.toSet());
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files
+                .filter(file -> !live.contains(file))
+                .filter(file -> isOlderThan(file, cutoff))
+                .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not purge export cache {}", cacheDir, e);
+        }
+    }
+
+    private void store(Lookup lookup, Path partial) throws IOException {
+        if (version(lookup.userId()).get() != lookup.version()) {
+            // Contacts changed while exporting, the copy is already stale
+            deleteQuietly(partial);
+            return;
+        }
+
+        Path target = cacheDir.resolve(UUID.randomUUID() + ".export");
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        artifacts.put(
+            lookup.key(),
+            new Artifact(target, lookup.version(), Instant.now())
+        );
+        log.debug("Cached export {}", lookup.key());
+    }
+
+    private AtomicLong version(Long userId) {
+        return versions.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    private boolean isOlderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file)
+                .toInstant()
+                .isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached export {}", file, e);
+        }
+    }
+
+    public record Lookup(
+        Long userId,
+        String variant,
+        long version,
+        String etag
+    ) {
+        private CacheKey key() {
+            return new CacheKey(userId, variant);
+        }
+    }
+
+    private record CacheKey(Long userId, String variant) {}
+
+    private record Artifact(Path file, long version, Instant createdAt) {}
+
+    // Writes to the client and to the cache file. A failing cache file only
+    // stops the copy, the client still gets the whole export.
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private OutputStream copy;
+        private boolean copyFailed;
+
+        private TeeOutputStream(OutputStream out, OutputStream copy) {
+            this.out = out;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                try {
+                    copy.write(b);
+                } catch (IOException e) {
+                    stopCopying(e);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                try {
+                    copy.write(b, off, len);
+                } catch (IOException e) {
+                    stopCopying(e);
+                }
+            }
+        }
+
+        // Only the client side: the copy is flushed when it is closed
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        private boolean copyFailed() {
+            return copyFailed;
+        }
+
+        private void stopCopying(IOException e) {
+            log.warn("Could not write export to the cache", e);
+            copy = null;
+            copyFailed = true;
+        }
+    }
+}
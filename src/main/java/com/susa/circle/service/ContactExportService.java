@@ -1,139 +1,572 @@
 package com.susa.circle.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.susa.circle.dto.response.ContactResponse;
 import com.susa.circle.entity.Contact;
-import com.susa.circle.entity.ContactEmail;
-import com.susa.circle.entity.ContactPhone;
 import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.mapper.ContactCellCodec;
 import com.susa.circle.mapper.ContactMapper;
+import com.susa.circle.mapper.VCardWriter;
 import com.susa.circle.repository.ContactRepository;
-import java.io.ByteArrayOutputStream;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.LongConsumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Slf4j
 public class ContactExportService {
 
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader("First Name", "Last Name", "Title", "Emails", "Phones")
+        .build();
+
     private final ContactRepository contactRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
     private final ObjectMapper objectMapper;
+    private final ObjectWriter contactWriter;
+    private final ObjectWriter rowWriter;
+    private final CBORFactory cborFactory;
+
+    @Value("${contacts.export.chunk-size:500}")
+    private int chunkSize;
 
-    public ContactExportService(ContactRepository contactRepository) {
+    public ContactExportService(
+        ContactRepository contactRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager
+    ) {
         this.contactRepository = contactRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.disable(
             SerializationFeature.WRITE_DATES_AS_TIMESTAMPS
         );
+        // Let the generator decide when to flush instead of once per contact
+        this.contactWriter = objectMapper
+            .writerFor(ContactResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.rowWriter = objectMapper.writer().without(
+            SerializationFeature.FLUSH_AFTER_WRITE_VALUE
+        );
+        this.cborFactory = new CBORFactory();
     }
 
-    @Transactional(readOnly = true)
-    public byte[] exportContactsAsJson(Long userId) {
-        log.info("Exporting contacts as JSON for user id: {}", userId);
+    public long streamContactsAsJson(Long userId, OutputStream out) {
+        return streamContactsAsJson(userId, out, exported -> {});
+    }
 
-        List<Contact> contacts = contactRepository
-            .findAll()
-            .stream()
-            .filter(contact -> contact.getUser().getId().equals(userId))
-            .collect(Collectors.toList());
+    public long streamContactsAsJson(
+        Long userId,
+        OutputStream out,
+        LongConsumer progress
+    ) {
+        return streamContactsAsArray(
+            userId,
+            out,
+            objectMapper.getFactory(),
+            "JSON",
+            progress
+        );
+    }
 
-        List<ContactResponse> contactResponses = contacts
-            .stream()
-            .map(ContactMapper::toResponse)
-            .collect(Collectors.toList());
+    // The same array as the JSON export, encoded as CBOR
+    public long streamContactsAsCbor(Long userId, OutputStream out) {
+        return streamContactsAsArray(
+            userId,
+            out,
+            cborFactory,
+            "CBOR",
+            exported -> {}
+        );
+    }
 
-        try {
-            byte[] jsonBytes = objectMapper.writeValueAsBytes(contactResponses);
-            log.info(
-                "Successfully exported {} contacts as JSON",
-                contacts.size()
-            );
-            return jsonBytes;
-        } catch (IOException e) {
-            log.error("Error exporting contacts as JSON", e);
-            throw new BadRequestException("Failed to export contacts as JSON");
+    // Falls back to the full export when projection is null
+    public long streamContactsAsJson(
+        Long userId,
+        OutputStream out,
+        ContactProjection projection
+    ) {
+        if (projection == null) {
+            return streamContactsAsJson(userId, out);
         }
+        return streamProjectionAsArray(
+            userId,
+            out,
+            objectMapper.getFactory(),
+            "JSON",
+            projection
+        );
     }
 
-    @Transactional(readOnly = true)
-    public byte[] exportContactsAsCsv(Long userId) {
-        log.info("Exporting contacts as CSV for user id: {}", userId);
+    public long streamContactsAsCbor(
+        Long userId,
+        OutputStream out,
+        ContactProjection projection
+    ) {
+        if (projection == null) {
+            return streamContactsAsCbor(userId, out);
+        }
+        return streamProjectionAsArray(
+            userId,
+            out,
+            cborFactory,
+            "CBOR",
+            projection
+        );
+    }
 
-        List<Contact> contacts = contactRepository
-            .findAll()
-            .stream()
-            .filter(contact -> contact.getUser().getId().equals(userId))
-            .collect(Collectors.toList());
+    private long streamContactsAsArray(
+        Long userId,
+        OutputStream out,
+        JsonFactory factory,
+        String format,
+        LongConsumer progress
+    ) {
+        log.info(
+            "Streaming contacts as {} for user id: {}",
+            format,
+            userId
+        );
 
+        long count = 0;
         try (
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            OutputStreamWriter writer = new OutputStreamWriter(
-                out,
-                StandardCharsets.UTF_8
-            );
-            CSVPrinter csvPrinter = new CSVPrinter(
-                writer,
-                CSVFormat.DEFAULT.builder()
-                    .setHeader(
-                        "First Name",
-                        "Last Name",
-                        "Title",
-                        "Emails",
-                        "Phones"
+            JsonGenerator generator = factory
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        ) {
+            generator.writeStartArray();
+
+            long afterId = 0;
+            while (true) {
+                ChunkResult chunk = writeChunk(userId, afterId, contact ->
+                    contactWriter.writeValue(
+                        generator,
+                        ContactMapper.toResponse(contact)
                     )
-                    .build()
-            )
+                );
+                if (chunk.size() == 0) {
+                    break;
+                }
+                generator.flush();
+                count += chunk.size();
+                afterId = chunk.lastId();
+                progress.accept(count);
+            }
+
+            generator.writeEndArray();
+        } catch (IOException e) {
+            log.error("Error streaming contacts as {}", format, e);
+            throw new BadRequestException(
+                "Failed to export contacts as " + format
+            );
+        }
+
+        log.info("Successfully exported {} contacts as {}", count, format);
+        return count;
+    }
+
+    private long streamProjectionAsArray(
+        Long userId,
+        OutputStream out,
+        JsonFactory factory,
+        String format,
+        ContactProjection projection
+    ) {
+        log.info(
+            "Streaming contacts as {} with fields {} for user id: {}",
+            format,
+            projection.getFields(),
+            userId
+        );
+
+        long count;
+        try (
+            JsonGenerator generator = factory
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
         ) {
-            for (Contact contact : contacts) {
-                String emails = contact
-                    .getEmails()
-                    .stream()
-                    .map(this::formatEmail)
-                    .collect(Collectors.joining("; "));
-
-                String phones = contact
-                    .getPhones()
-                    .stream()
-                    .map(this::formatPhone)
-                    .collect(Collectors.joining("; "));
-
-                csvPrinter.printRecord(
-                    contact.getFirstName(),
-                    contact.getLastName(),
-                    contact.getTitle() != null ? contact.getTitle() : "",
-                    emails,
-                    phones
+            generator.writeStartArray();
+            count = writeProjectedChunks(
+                userId,
+                projection,
+                row ->
+                    rowWriter.writeValue(
+                        generator,
+                        projection.jsonValues(row)
+                    ),
+                generator::flush
+            );
+            generator.writeEndArray();
+        } catch (IOException e) {
+            log.error("Error streaming contacts as {}", format, e);
+            throw new BadRequestException(
+                "Failed to export contacts as " + format
+            );
+        }
+
+        log.info("Successfully exported {} contacts as {}", count, format);
+        return count;
+    }
+
+    public long streamContactsAsCsv(Long userId, OutputStream out) {
+        return streamContactsAsCsv(userId, out, exported -> {});
+    }
+
+    public long streamContactsAsCsv(
+        Long userId,
+        OutputStream out,
+        LongConsumer progress
+    ) {
+        log.info("Streaming contacts as CSV for user id: {}", userId);
+
+        long count = 0;
+        try {
+            // Not closed on purpose: closing would close the caller's stream
+            CSVPrinter csvPrinter = new CSVPrinter(
+                new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8)
+                ),
+                CSV_FORMAT
+            );
+
+            long afterId = 0;
+            while (true) {
+                ChunkResult chunk = writeChunk(userId, afterId, contact ->
+                    printCsvRecord(csvPrinter, contact)
                 );
+                if (chunk.size() == 0) {
+                    break;
+                }
+                // Push each chunk to the client while the next one is read
+                csvPrinter.flush();
+                count += chunk.size();
+                afterId = chunk.lastId();
+                progress.accept(count);
             }
 
             csvPrinter.flush();
-            log.info(
-                "Successfully exported {} contacts as CSV",
-                contacts.size()
+        } catch (IOException e) {
+            log.error("Error exporting contacts as CSV", e);
+            throw new BadRequestException("Failed to export contacts as CSV");
+        }
+
+        log.info("Successfully exported {} contacts as CSV", count);
+        return count;
+    }
+
+    // The CSV header follows the selected fields and their order
+    public long streamContactsAsCsv(
+        Long userId,
+        OutputStream out,
+        ContactProjection projection
+    ) {
+        if (projection == null) {
+            return streamContactsAsCsv(userId, out);
+        }
+        log.info(
+            "Streaming contacts as CSV with fields {} for user id: {}",
+            projection.getFields(),
+            userId
+        );
+
+        long count;
+        try {
+            // Not closed on purpose: closing would close the caller's stream
+            CSVPrinter csvPrinter = new CSVPrinter(
+                new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8)
+                ),
+                CSVFormat.DEFAULT.builder()
+                    .setHeader(projection.csvHeader())
+                    .build()
+            );
+            count = writeProjectedChunks(
+                userId,
+                projection,
+                row -> csvPrinter.printRecord(projection.csvValues(row)),
+                csvPrinter::flush
             );
-            return out.toByteArray();
+            csvPrinter.flush();
         } catch (IOException e) {
             log.error("Error exporting contacts as CSV", e);
             throw new BadRequestException("Failed to export contacts as CSV");
         }
+
+        log.info("Successfully exported {} contacts as CSV", count);
+        return count;
+    }
+
+    public long streamContactsAsNdjson(Long userId, OutputStream out) {
+        return streamContactsAsNdjson(userId, out, exported -> {});
+    }
+
+    // One contact per line, flushed as soon as it is written so consumers
+    // can start on the first line while the rest is still being read
+    public long streamContactsAsNdjson(
+        Long userId,
+        OutputStream out,
+        LongConsumer progress
+    ) {
+        log.info("Streaming contacts as NDJSON for user id: {}", userId);
+
+        long count = 0;
+        try (
+            JsonGenerator generator = objectMapper
+                .getFactory()
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        ) {
+            generator.setRootValueSeparator(null);
+
+            long afterId = 0;
+            while (true) {
+                ChunkResult chunk = writeChunk(userId, afterId, contact -> {
+                    contactWriter.writeValue(
+                        generator,
+                        ContactMapper.toResponse(contact)
+                    );
+                    generator.writeRaw('\n');
+                    generator.flush();
+                });
+                if (chunk.size() == 0) {
+                    break;
+                }
+                count += chunk.size();
+                afterId = chunk.lastId();
+                progress.accept(count);
+            }
+        } catch (IOException e) {
+            log.error("Error exporting contacts as NDJSON", e);
+            throw new BadRequestException(
+                "Failed to export contacts as NDJSON"
+            );
+        }
+
+        log.info("Successfully exported {} contacts as NDJSON", count);
+        return count;
+    }
+
+    public long streamContactsAsNdjson(
+        Long userId,
+        OutputStream out,
+        ContactProjection projection
+    ) {
+        if (projection == null) {
+            return streamContactsAsNdjson(userId, out);
+        }
+        log.info(
+            "Streaming contacts as NDJSON with fields {} for user id: {}",
+            projection.getFields(),
+            userId
+        );
+
+        long count;
+        try (
+            JsonGenerator generator = objectMapper
+                .getFactory()
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        ) {
+            generator.setRootValueSeparator(null);
+            count = writeProjectedChunks(
+                userId,
+                projection,
+                row -> {
+                    rowWriter.writeValue(
+                        generator,
+                        projection.jsonValues(row)
+                    );
+                    generator.writeRaw('\n');
+                    generator.flush();
+                },
+                () -> {}
+            );
+        } catch (IOException e) {
+            log.error("Error exporting contacts as NDJSON", e);
+            throw new BadRequestException(
+                "Failed to export contacts as NDJSON"
+            );
+        }
+
+        log.info("Successfully exported {} contacts as NDJSON", count);
+        return count;
+    }
+
+    public long streamContactsAsVCard(
+        Long userId,
+        OutputStream out,
+        String version
+    ) {
+        return streamContactsAsVCard(userId, out, version, exported -> {});
     }
 
-    private String formatEmail(ContactEmail email) {
-        return email.getEmail() + " (" + email.getType() + ")";
+    public long streamContactsAsVCard(
+        Long userId,
+        OutputStream out,
+        String version,
+        LongConsumer progress
+    ) {
+        log.info(
+            "Streaming contacts as vCard {} for user id: {}",
+            version,
+            userId
+        );
+
+        long count = 0;
+        try {
+            VCardWriter vCardWriter = new VCardWriter(
+                new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8)
+                ),
+                version
+            );
+
+            long afterId = 0;
+            while (true) {
+                ChunkResult chunk = writeChunk(
+                    userId,
+                    afterId,
+                    vCardWriter::write
+                );
+                if (chunk.size() == 0) {
+                    break;
+                }
+                vCardWriter.flush();
+                count += chunk.size();
+                afterId = chunk.lastId();
+                progress.accept(count);
+            }
+
+            vCardWriter.flush();
+        } catch (IOException e) {
+            log.error("Error exporting contacts as vCard", e);
+            throw new BadRequestException(
+                "Failed to export contacts as vCard"
+            );
+        }
+
+        log.info("Successfully exported {} contacts as vCard", count);
+        return count;
+    }
+
+    // Each chunk is read in its own short read-only transaction and written
+    // once it has ended, so a slow client never holds a connection
+    private ChunkResult writeChunk(
+        Long userId,
+        long afterId,
+        ContactWriter contactWriter
+    ) throws IOException {
+        List<Contact> contacts = readOnlyTransaction.execute(status -> {
+            List<Contact> chunk =
+                contactRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                    userId,
+                    afterId,
+                    Limit.of(chunkSize)
+                );
+            if (chunk.isEmpty()) {
+                return chunk;
+            }
+
+            // Initialize the emails and phones of the whole chunk in two
+            // queries instead of two per contact; they stay loaded once the
+            // contacts are detached
+            List<Long> ids = chunk.stream().map(Contact::getId).toList();
+            contactRepository.findAllWithEmailsByIdIn(ids);
+            contactRepository.findAllWithPhonesByIdIn(ids);
+            entityManager.clear();
+            return chunk;
+        });
+        if (contacts.isEmpty()) {
+            return new ChunkResult(0, afterId);
+        }
+
+        for (Contact contact : contacts) {
+            contactWriter.write(contact);
+        }
+        return new ChunkResult(
+            contacts.size(),
+            contacts.get(contacts.size() - 1).getId()
+        );
+    }
+
+    // The projected counterpart of writeChunk: rows are plain values read in
+    // the chunk's transaction and written after it has ended
+    private long writeProjectedChunks(
+        Long userId,
+        ContactProjection projection,
+        RowWriter writer,
+        Flushable flushable
+    ) throws IOException {
+        long count = 0;
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<ContactProjection.Row> rows = readOnlyTransaction.execute(
+                status ->
+                    projection.readChunk(
+                        entityManager,
+                        userId,
+                        after,
+                        chunkSize
+                    )
+            );
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (ContactProjection.Row row : rows) {
+                writer.write(row);
+            }
+            flushable.flush();
+            count += rows.size();
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+        return count;
+    }
+
+    private void printCsvRecord(CSVPrinter csvPrinter, Contact contact)
+        throws IOException {
+        csvPrinter.printRecord(
+            contact.getFirstName(),
+            contact.getLastName(),
+            contact.getTitle() != null ? contact.getTitle() : "",
+            ContactCellCodec.formatEmails(contact.getEmails()),
+            ContactCellCodec.formatPhones(contact.getPhones())
+        );
+    }
+
+    private record ChunkResult(int size, long lastId) {}
+
+    @FunctionalInterface
+    private interface ContactWriter {
+        void write(Contact contact) throws IOException;
     }
 
-    private String formatPhone(ContactPhone phone) {
-        return phone.getPhoneNumber() + " (" + phone.getType() + ")";
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ContactProjection.Row row) throws IOException;
     }
 }
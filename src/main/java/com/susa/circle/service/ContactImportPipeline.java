@@ -0,0 +1,244 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.response.ImportRowError;
+import com.susa.circle.dto.response.ImportSummaryResponse;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.exception.BadRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+// reader -> N parse/validate workers -> single writer. The reader queues one
+// future per chunk and the writer takes them in that order, so rows are
+// written and reported in source order. The bounded queue is the
+// backpressure: the reader blocks once that many chunks are in flight.
+@Service
+@Slf4j
+public class ContactImportPipeline {
+
+    private static final ChunkResult END = new ChunkResult(
+        List.of(),
+        0,
+        0,
+        List.of()
+    );
+
+    private final Validator validator;
+    private final AsyncTaskExecutor importWorkerExecutor;
+
+    @Value("${contacts.import.batch-size:500}")
+    private int chunkSize;
+
+    @Value("${contacts.import.pipeline.max-in-flight-chunks:8}")
+    private int maxInFlightChunks;
+
+    @Value("${contacts.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ContactImportPipeline(
+        Validator validator,
+        @Qualifier("importWorkerExecutor") AsyncTaskExecutor workerExecutor
+    ) {
+        this.validator = validator;
+        this.importWorkerExecutor = workerExecutor;
+    }
+
+    // The writer runs on the calling thread, one batch at a time.
+    // Invalid rows are left out and reported by their 1-based row number;
+    // rows the parser maps to null are counted as skipped.
+    public <T> ImportSummaryResponse run(
+        Iterator<T> rows,
+        Function<T, ContactRequest> parser,
+        Function<ContactRequest, Contact> builder,
+        Consumer<List<Contact>> writer
+    ) {
+        return execute(rows, parser, builder, writer);
+    }
+
+    // Parses and validates every row without building or writing contacts;
+    // "imported" in the result is the number of rows that would be imported
+    public <T> ImportSummaryResponse validate(
+        Iterator<T> rows,
+        Function<T, ContactRequest> parser
+    ) {
+        return execute(rows, parser, null, contacts -> {});
+    }
+
+    private <T> ImportSummaryResponse execute(
+        Iterator<T> rows,
+        Function<T, ContactRequest> parser,
+        Function<ContactRequest, Contact> builder,
+        Consumer<List<Contact>> writer
+    ) {
+        BlockingQueue<Future<ChunkResult>> pending = new ArrayBlockingQueue<>(
+            maxInFlightChunks
+        );
+        Thread reader = Thread.ofVirtual()
+            .name("import-reader")
+            .start(() -> readChunks(rows, parser, builder, pending));
+
+        long imported = 0;
+        long skipped = 0;
+        long failed = 0;
+        List<ImportRowError> errors = new ArrayList<>();
+        try {
+            while (true) {
+                ChunkResult chunk = pending.take().get();
+                if (chunk == END) {
+                    break;
+                }
+
+                imported += chunk.valid();
+                skipped += chunk.skipped();
+                failed += chunk.errors().size();
+                for (ImportRowError error : chunk.errors()) {
+                    if (errors.size() < maxReportedErrors) {
+                        errors.add(error);
+                    }
+                }
+
+                if (!chunk.contacts().isEmpty()) {
+                    writer.accept(chunk.contacts());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BadRequestException("Import was interrupted");
+        } catch (ExecutionException e) {
+            // Malformed input from the reader (e.g. the UncheckedIOException
+            // of a broken CSV) or a failed worker: the request's fault, as on
+            // the sequential path
+            if (e.getCause() instanceof BadRequestException cause) {
+                throw cause;
+            }
+            throw new BadRequestException(
+                "Failed to read import: " + e.getCause().getMessage()
+            );
+        } finally {
+            // Stops the reader if the writer bailed out early
+            reader.interrupt();
+            pending.forEach(future -> future.cancel(true));
+        }
+
+        return ImportSummaryResponse.builder()
+            .imported(imported)
+            .skipped(skipped)
+            .failed(failed)
+            .errors(errors)
+            .build();
+    }
+
+    private <T> void readChunks(
+        Iterator<T> rows,
+        Function<T, ContactRequest> parser,
+        Function<ContactRequest, Contact> builder,
+        BlockingQueue<Future<ChunkResult>> pending
+    ) {
+        try {
+            try {
+                long firstRow = 1;
+                List<T> chunk = new ArrayList<>(chunkSize);
+                while (rows.hasNext()) {
+                    chunk.add(rows.next());
+                    if (chunk.size() >= chunkSize) {
+                        pending.put(submit(chunk, firstRow, parser, builder));
+                        firstRow += chunk.size();
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pending.put(submit(chunk, firstRow, parser, builder));
+                }
+                pending.put(CompletableFuture.completedFuture(END));
+            } catch (RuntimeException e) {
+                // Malformed input; surface it to the writer in order
+                pending.put(CompletableFuture.failedFuture(e));
+            }
+        } catch (InterruptedException e) {
+            log.debug("Import reader stopped before the end of the input");
+        }
+    }
+
+    private <T> Future<ChunkResult> submit(
+        List<T> chunk,
+        long firstRow,
+        Function<T, ContactRequest> parser,
+        Function<ContactRequest, Contact> builder
+    ) {
+        return importWorkerExecutor.submit(() -> {
+            List<Contact> contacts = new ArrayList<>(chunk.size());
+            int valid = 0;
+            int skipped = 0;
+            List<ImportRowError> errors = new ArrayList<>();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                long row = firstRow + i;
+                try {
+                    ContactRequest request = parser.apply(chunk.get(i));
+                    if (request == null) {
+                        skipped++;
+                        continue;
+                    }
+                    String violations = validate(request);
+                    if (violations == null) {
+                        valid++;
+                        if (builder != null) {
+                            contacts.add(builder.apply(request));
+                        }
+                    } else {
+                        errors.add(new ImportRowError(row, violations));
+                    }
+                } catch (RuntimeException e) {
+                    errors.add(new ImportRowError(row, e.getMessage()));
+                }
+            }
+
+            return new ChunkResult(contacts, valid, skipped, errors);
+        });
+    }
+
+    private String validate(ContactRequest request) {
+        Set<ConstraintViolation<ContactRequest>> violations =
+            validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations
+            .stream()
+            .sorted(
+                Comparator.comparing(violation ->
+                    violation.getPropertyPath().toString()
+                )
+            )
+            .map(violation ->
+                violation.getPropertyPath() + ": " + violation.getMessage()
+            )
+            .collect(Collectors.joining("; "));
+    }
+
+    private record ChunkResult(
+        List<Contact> contacts,
+        int valid,
+        int skipped,
+        List<ImportRowError> errors
+    ) {}
+}
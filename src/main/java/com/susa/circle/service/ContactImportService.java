@@ -1,58 +1,133 @@
 package com.susa.circle.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.susa.circle.config.DatabasePlatform;
 import com.susa.circle.dto.request.ContactRequest;
 import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.dto.response.ImportSummaryResponse;
 import com.susa.circle.entity.Contact;
-import com.susa.circle.entity.ContactEmail;
-import com.susa.circle.entity.ContactPhone;
 import com.susa.circle.entity.User;
-import com.susa.circle.enums.EmailType;
-import com.susa.circle.enums.PhoneType;
+import com.susa.circle.event.ContactsChangedEvent;
 import com.susa.circle.exception.BadRequestException;
 import com.susa.circle.exception.ResourceNotFoundException;
 import com.susa.circle.mapper.ContactMapper;
+import com.susa.circle.mapper.VCardReader;
 import com.susa.circle.repository.ContactRepository;
 import com.susa.circle.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
 @Slf4j
 public class ContactImportService {
 
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+        .setHeader()
+        .setSkipHeaderRecord(true)
+        .setIgnoreHeaderCase(true)
+        .setTrim(true)
+        .build();
+
     private final ContactRepository contactRepository;
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final DatabasePlatform databasePlatform;
+    private final PostgresCopyImporter postgresCopyImporter;
+    private final PostgresUpsertImporter postgresUpsertImporter;
+    private final ContactImportPipeline contactImportPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImportThrottle importThrottle;
+    private final TransactionTemplate transactionTemplate;
     private final ObjectMapper objectMapper;
+    private final ObjectReader contactReader;
+    private final CBORFactory cborFactory;
+
+    @Value("${contacts.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${contacts.import.postgres-copy:true}")
+    private boolean postgresCopyEnabled;
+
+    @Value("${contacts.import.ndjson.parallel-parts:4}")
+    private int ndjsonParallelParts;
 
     public ContactImportService(
         ContactRepository contactRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        EntityManager entityManager,
+        DatabasePlatform databasePlatform,
+        PostgresCopyImporter postgresCopyImporter,
+        PostgresUpsertImporter postgresUpsertImporter,
+        ContactImportPipeline contactImportPipeline,
+        ApplicationEventPublisher eventPublisher,
+        ImportThrottle importThrottle,
+        PlatformTransactionManager transactionManager
     ) {
         this.contactRepository = contactRepository;
         this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.databasePlatform = databasePlatform;
+        this.postgresCopyImporter = postgresCopyImporter;
+        this.postgresUpsertImporter = postgresUpsertImporter;
+        this.contactImportPipeline = contactImportPipeline;
+        this.eventPublisher = eventPublisher;
+        this.importThrottle = importThrottle;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.disable(
             SerializationFeature.WRITE_DATES_AS_TIMESTAMPS
         );
+        this.contactReader = objectMapper.readerFor(ContactRequest.class);
+        this.cborFactory = new CBORFactory();
     }
 
     @Transactional
@@ -76,11 +151,13 @@ public class ContactImportService {
 
             List<Contact> contacts = new ArrayList<>();
             for (ContactRequest request : contactRequests) {
-                Contact contact = buildContactFromRequest(user, request);
+                Contact contact = ContactMapper.toEntity(user, request);
                 contacts.add(contact);
             }
 
+            importThrottle.chargeRows(userId, contacts.size());
             List<Contact> savedContacts = contactRepository.saveAll(contacts);
+            contactsChanged(userId, savedContacts.size());
             log.info(
                 "Successfully imported {} contacts from JSON",
                 savedContacts.size()
@@ -98,6 +175,99 @@ public class ContactImportService {
         }
     }
 
+    public ImportSummaryResponse importContactsFromJsonStream(
+        Long userId,
+        InputStream in
+    ) {
+        return importContactsFromJsonStream(userId, in, id -> {});
+    }
+
+    // Commits a batch at a time; createdIds is called with each contact's id
+    // once its batch has committed
+    public ImportSummaryResponse importContactsFromJsonStream(
+        Long userId,
+        InputStream in,
+        LongConsumer createdIds
+    ) {
+        return importContactsFromArray(
+            userId,
+            in,
+            objectMapper.getFactory(),
+            "JSON",
+            createdIds
+        );
+    }
+
+    // The same array of contacts as the JSON import, encoded as CBOR
+    public ImportSummaryResponse importContactsFromCborStream(
+        Long userId,
+        InputStream in
+    ) {
+        return importContactsFromArray(
+            userId,
+            in,
+            cborFactory,
+            "CBOR",
+            id -> {}
+        );
+    }
+
+    public ImportSummaryResponse importContactsFromVCardStream(
+        Long userId,
+        InputStream in
+    ) {
+        return importContactsFromVCardStream(userId, in, id -> {});
+    }
+
+    // Cards are read one at a time and committed a batch at a time. Cards
+    // are validated like the pipelined imports' rows: invalid ones are left
+    // out and reported by their 1-based card number, and cards without a
+    // name are skipped.
+    public ImportSummaryResponse importContactsFromVCardStream(
+        Long userId,
+        InputStream in,
+        LongConsumer createdIds
+    ) {
+        log.info("Streaming contacts from vCard for user id: {}", userId);
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        LongConsumer idSink = ids.andThen(createdIds);
+        try (
+            VCardReader reader = new VCardReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8)
+            )
+        ) {
+            ImportSummaryResponse summary = contactImportPipeline.run(
+                reader.iterator(),
+                card -> card.getFirstName() == null ? null : card,
+                request -> ContactMapper.toEntity(null, request),
+                batch -> persistBatch(userId, batch, idSink)
+            );
+            if (ids.getCount() > 0) {
+                summary.setFirstId(ids.getMin());
+                summary.setLastId(ids.getMax());
+            }
+            log.info(
+                "Imported {} contacts from vCard, {} cards failed",
+                summary.getImported(),
+                summary.getFailed()
+            );
+            return summary;
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Error importing contacts from vCard", e);
+            throw new BadRequestException(
+                "Failed to import contacts from vCard after " +
+                    ids.getCount() +
+                    " contacts: " +
+                    e.getMessage()
+            );
+        }
+    }
+
     @Transactional
     public List<ContactResponse> importContactsFromCsv(
         Long userId,
@@ -111,41 +281,36 @@ public class ContactImportService {
                 new ResourceNotFoundException("User", "id", userId)
             );
 
-        try (
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(
-                    file.getInputStream(),
-                    StandardCharsets.UTF_8
-                )
-            );
-            CSVParser csvParser = new CSVParser(
-                reader,
-                CSVFormat.DEFAULT.builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setIgnoreHeaderCase(true)
-                    .setTrim(true)
-                    .build()
-            )
-        ) {
+        try (CSVParser csvParser = openCsvParser(file.getInputStream())) {
             List<Contact> contacts = new ArrayList<>();
 
             for (CSVRecord record : csvParser) {
-                Contact contact = buildContactFromCsvRecord(user, record);
+                Contact contact = ContactMapper.toEntity(
+                    user,
+                    ContactMapper.toRequest(record)
+                );
                 contacts.add(contact);
             }
 
-            List<Contact> savedContacts = contactRepository.saveAll(contacts);
+            importThrottle.chargeRows(userId, contacts.size());
+            List<ContactResponse> imported;
+            if (postgresCopyEnabled && databasePlatform.isPostgres()) {
+                imported = copyContacts(userId, contacts);
+            } else {
+                imported = contactRepository
+                    .saveAll(contacts)
+                    .stream()
+                    .map(ContactMapper::toResponse)
+                    .collect(Collectors.toList());
+            }
+            contactsChanged(userId, imported.size());
             log.info(
                 "Successfully imported {} contacts from CSV",
-                savedContacts.size()
+                imported.size()
             );
 
-            return savedContacts
-                .stream()
-                .map(ContactMapper::toResponse)
-                .collect(Collectors.toList());
-        } catch (IOException e) {
+            return imported;
+        } catch (IOException | SQLException | DataAccessException e) {
             log.error("Error importing contacts from CSV", e);
             throw new BadRequestException(
                 "Failed to import contacts from CSV: " + e.getMessage()
@@ -153,137 +318,923 @@ public class ContactImportService {
         }
     }
 
-    private Contact buildContactFromRequest(User user, ContactRequest request) {
-        Contact contact = Contact.builder()
-            .firstName(request.getFirstName())
-            .lastName(request.getLastName())
-            .title(request.getTitle())
-            .user(user)
-            .build();
+    public ImportSummaryResponse importContactsFromCsvStream(
+        Long userId,
+        InputStream in
+    ) {
+        return importContactsFromCsvStream(userId, in, id -> {});
+    }
 
-        if (request.getEmails() != null) {
-            List<ContactEmail> emails = request
-                .getEmails()
-                .stream()
-                .map(emailReq ->
-                    ContactEmail.builder()
-                        .email(emailReq.getEmail())
-                        .type(emailReq.getType())
-                        .contact(contact)
-                        .build()
-                )
-                .collect(Collectors.toList());
-            contact.setEmails(emails);
+    // Commits a batch at a time, with COPY on PostgreSQL
+    public ImportSummaryResponse importContactsFromCsvStream(
+        Long userId,
+        InputStream in,
+        LongConsumer createdIds
+    ) {
+        log.info("Streaming contacts from CSV for user id: {}", userId);
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
         }
 
-        if (request.getPhones() != null) {
-            List<ContactPhone> phones = request
-                .getPhones()
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        LongConsumer idSink = ids.andThen(createdIds);
+        AtomicLong skipped = new AtomicLong();
+        try (CSVParser csvParser = openCsvParser(in)) {
+            // Records are parsed lazily as the writer pulls them
+            Iterator<Contact> contacts = csvParser
                 .stream()
-                .map(phoneReq ->
-                    ContactPhone.builder()
-                        .phoneNumber(phoneReq.getPhoneNumber())
-                        .type(phoneReq.getType())
-                        .contact(contact)
-                        .build()
-                )
-                .collect(Collectors.toList());
-            contact.setPhones(phones);
+                .filter(record -> {
+                    if (isBlank(record)) {
+                        skipped.incrementAndGet();
+                        return false;
+                    }
+                    return true;
+                })
+                .map(ContactMapper::toRequest)
+                .map(request -> ContactMapper.toEntity(null, request))
+                .iterator();
+
+            if (postgresCopyEnabled && databasePlatform.isPostgres()) {
+                copyInBatches(userId, contacts, idSink);
+            } else {
+                persistInBatches(userId, contacts, idSink);
+            }
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Error importing contacts from CSV", e);
+            throw new BadRequestException(
+                "Failed to import contacts from CSV after " +
+                    ids.getCount() +
+                    " contacts: " +
+                    e.getMessage()
+            );
         }
 
-        return contact;
+        log.info(
+            "Successfully imported {} contacts from CSV",
+            ids.getCount()
+        );
+        return summarize(ids, skipped.get());
     }
 
-    private Contact buildContactFromCsvRecord(User user, CSVRecord record) {
-        Contact contact = Contact.builder()
-            .firstName(record.get("First Name"))
-            .lastName(record.get("Last Name"))
-            .title(record.get("Title").isEmpty() ? null : record.get("Title"))
-            .user(user)
-            .build();
+    public ImportSummaryResponse importContactsFromCsvPipelined(
+        Long userId,
+        InputStream in
+    ) {
+        return importContactsFromCsvPipelined(userId, in, id -> {});
+    }
 
-        // Parse emails
-        String emailsStr = record.get("Emails");
-        if (emailsStr != null && !emailsStr.trim().isEmpty()) {
-            List<ContactEmail> emails = parseEmails(emailsStr, contact);
-            contact.setEmails(emails);
+    // The writer commits a batch at a time, as the streaming imports do
+    public ImportSummaryResponse importContactsFromCsvPipelined(
+        Long userId,
+        InputStream in,
+        LongConsumer createdIds
+    ) {
+        log.info(
+            "Pipelined import of contacts from CSV for user id: {}",
+            userId
+        );
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
         }
 
-        // Parse phones
-        String phonesStr = record.get("Phones");
-        if (phonesStr != null && !phonesStr.trim().isEmpty()) {
-            List<ContactPhone> phones = parsePhones(phonesStr, contact);
-            contact.setPhones(phones);
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        LongConsumer idSink = ids.andThen(createdIds);
+        try (CSVParser csvParser = openCsvParser(in)) {
+            ImportSummaryResponse summary = contactImportPipeline.run(
+                csvParser.iterator(),
+                record ->
+                    isBlank(record) ? null : ContactMapper.toRequest(record),
+                request -> ContactMapper.toEntity(null, request),
+                batch -> persistBatch(userId, batch, idSink)
+            );
+            if (ids.getCount() > 0) {
+                summary.setFirstId(ids.getMin());
+                summary.setLastId(ids.getMax());
+            }
+            log.info(
+                "Imported {} contacts from CSV, {} rows failed",
+                summary.getImported(),
+                summary.getFailed()
+            );
+            return summary;
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Error importing contacts from CSV", e);
+            throw new BadRequestException(
+                "Failed to import contacts from CSV after " +
+                    ids.getCount() +
+                    " contacts: " +
+                    e.getMessage()
+            );
         }
+    }
 
-        return contact;
+    // The JSON counterpart: elements are bound and validated on the workers,
+    // so invalid contacts are reported instead of failing the import
+    public ImportSummaryResponse importContactsFromJsonPipelined(
+        Long userId,
+        InputStream in
+    ) {
+        log.info(
+            "Pipelined import of contacts from JSON for user id: {}",
+            userId
+        );
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        try (
+            MappingIterator<JsonNode> nodes = objectMapper
+                .readerFor(JsonNode.class)
+                .readValues(in)
+        ) {
+            ImportSummaryResponse summary = contactImportPipeline.run(
+                nodes,
+                node ->
+                    node.isNull()
+                        ? null
+                        : objectMapper.convertValue(node, ContactRequest.class),
+                request -> ContactMapper.toEntity(null, request),
+                batch -> persistBatch(userId, batch, ids)
+            );
+            if (ids.getCount() > 0) {
+                summary.setFirstId(ids.getMin());
+                summary.setLastId(ids.getMax());
+            }
+            log.info(
+                "Imported {} contacts from JSON, {} elements failed",
+                summary.getImported(),
+                summary.getFailed()
+            );
+            return summary;
+        } catch (
+            IOException
+            | RuntimeJsonMappingException
+            | DataAccessException e
+        ) {
+            log.error("Error importing contacts from JSON", e);
+            throw new BadRequestException(
+                "Failed to import contacts from JSON after " +
+                    ids.getCount() +
+                    " contacts: " +
+                    e.getMessage()
+            );
+        }
     }
 
-    private List<ContactEmail> parseEmails(String emailsStr, Contact contact) {
-        List<ContactEmail> emails = new ArrayList<>();
-        Pattern pattern = Pattern.compile("([^;]+)\\s*\\(([^)]+)\\)");
+    // Dry run: parses and validates every row in parallel and reports the
+    // failures without touching the database
+    public ImportSummaryResponse validateContactsFromCsv(InputStream in) {
+        log.info("Validating contacts from CSV");
 
-        String[] emailParts = emailsStr.split(";");
-        for (String part : emailParts) {
-            part = part.trim();
-            if (!part.isEmpty()) {
-                Matcher matcher = pattern.matcher(part);
-                if (matcher.find()) {
-                    String email = matcher.group(1).trim();
-                    String type = matcher.group(2).trim().toUpperCase();
+        try (CSVParser csvParser = openCsvParser(in)) {
+            return contactImportPipeline.validate(
+                csvParser.iterator(),
+                record ->
+                    isBlank(record) ? null : ContactMapper.toRequest(record)
+            );
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error validating contacts from CSV", e);
+            throw new BadRequestException(
+                "Failed to read contacts from CSV: " + e.getMessage()
+            );
+        }
+    }
 
-                    EmailType emailType;
-                    try {
-                        emailType = EmailType.valueOf(type);
-                    } catch (IllegalArgumentException e) {
-                        emailType = EmailType.PERSONAL;
-                    }
+    public ImportSummaryResponse validateContactsFromJson(InputStream in) {
+        log.info("Validating contacts from JSON");
+
+        // Only the tree is built on the reader thread; binding each element
+        // to a ContactRequest happens on the workers
+        try (
+            MappingIterator<JsonNode> nodes = objectMapper
+                .readerFor(JsonNode.class)
+                .readValues(in)
+        ) {
+            return contactImportPipeline.validate(nodes, node ->
+                node.isNull()
+                    ? null
+                    : objectMapper.convertValue(node, ContactRequest.class)
+            );
+        } catch (IOException | RuntimeJsonMappingException e) {
+            log.error("Error validating contacts from JSON", e);
+            throw new BadRequestException(
+                "Failed to read contacts from JSON: " + e.getMessage()
+            );
+        }
+    }
+
+    // Commits every batch in its own transaction and reports a checkpoint
+    // after each commit, so a failed import can be resumed by passing the
+    // last one back as from, with in positioned at its byte offset. With
+    // complete false, in may end in the middle of a record: the last record
+    // is left for the next run, and a parse error is taken for that cut
+    // rather than a malformed file.
+    public ImportSummaryResponse importContactsFromCsvCheckpointed(
+        Long userId,
+        InputStream in,
+        CsvCheckpoint from,
+        boolean complete,
+        LongConsumer createdIds,
+        Consumer<CsvCheckpoint> checkpoint
+    ) {
+        log.info(
+            "Checkpointed import of contacts from CSV for user id: {}, " +
+                "resuming after row {}",
+            userId,
+            from.rows()
+        );
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
 
-                    emails.add(
-                        ContactEmail.builder()
-                            .email(email)
-                            .type(emailType)
-                            .contact(contact)
-                            .build()
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        LongConsumer idSink = ids.andThen(createdIds);
+        long rows = from.rows();
+        long skipped = 0;
+        List<ContactRequest> batch = new ArrayList<>(batchSize);
+        // Offsets have to be exact, so malformed UTF-8 fails the import
+        // instead of being replaced
+        Utf8PositionReader reader = new Utf8PositionReader(
+            new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder())
+        );
+        CSVFormat format = from.header() == null
+            ? CSV_FORMAT
+            : CSV_FORMAT.builder()
+                  .setHeader(from.header().toArray(String[]::new))
+                  .setSkipHeaderRecord(false)
+                  .build();
+        try (CSVParser csvParser = new CSVParser(reader, format)) {
+            List<String> header = csvParser.getHeaderNames();
+            Iterator<CSVRecord> records = csvParser.iterator();
+            CSVRecord held = null;
+            CSVRecord next = nextRecord(records, complete);
+            while (next != null) {
+                CSVRecord record = next;
+                next = nextRecord(records, complete);
+                if (next == null && !complete) {
+                    held = record;
+                    break;
+                }
+
+                if (batch.size() >= batchSize) {
+                    commitBatch(userId, batch, idSink);
+                    checkpoint.accept(
+                        new CsvCheckpoint(
+                            rows,
+                            from.bytes() +
+                                reader.bytesAt(record.getCharacterPosition()),
+                            header
+                        )
                     );
                 }
+                rows++;
+                if (isBlank(record)) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(ContactMapper.toRequest(record));
+            }
+            commitBatch(userId, batch, idSink);
+
+            if (complete) {
+                checkpoint.accept(
+                    new CsvCheckpoint(
+                        rows,
+                        from.bytes() + reader.bytesRead(),
+                        header
+                    )
+                );
+            } else if (held != null) {
+                checkpoint.accept(
+                    new CsvCheckpoint(
+                        rows,
+                        from.bytes() +
+                            reader.bytesAt(held.getCharacterPosition()),
+                        header
+                    )
+                );
+            }
+            // Otherwise not even one record arrived whole, and the header
+            // may be cut as well: the next run reads from where this one did
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Error importing contacts from CSV", e);
+            throw new BadRequestException(
+                "Failed to import contacts from CSV: " + e.getMessage()
+            );
+        }
+
+        log.info(
+            "Successfully imported {} contacts from CSV",
+            ids.getCount()
+        );
+        return summarize(ids, skipped);
+    }
+
+    // Line-oriented import: every batch of lines is committed on its own,
+    // so a failure keeps the batches before it and a large file can be
+    // split and its parts imported concurrently
+    public ImportSummaryResponse importContactsFromNdjson(
+        Long userId,
+        InputStream in
+    ) {
+        log.info("Importing contacts from NDJSON for user id: {}", userId);
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        long skipped = 0;
+        List<ContactRequest> batch = new ArrayList<>(batchSize);
+        try (
+            MappingIterator<JsonNode> lines = objectMapper
+                .readerFor(JsonNode.class)
+                .readValues(in)
+        ) {
+            while (lines.hasNextValue()) {
+                JsonNode line = lines.nextValue();
+                if (line.isNull()) {
+                    skipped++;
+                    continue;
+                }
+
+                batch.add(contactReader.readValue(line));
+                if (batch.size() >= batchSize) {
+                    commitBatch(userId, batch, ids);
+                }
+            }
+            commitBatch(userId, batch, ids);
+        } catch (IOException | DataAccessException e) {
+            log.error("Error importing contacts from NDJSON", e);
+            throw new BadRequestException(
+                "Failed to import contacts from NDJSON after " +
+                    ids.getCount() +
+                    " contacts: " +
+                    e.getMessage()
+            );
+        }
+
+        log.info(
+            "Successfully imported {} contacts from NDJSON",
+            ids.getCount()
+        );
+        return summarize(ids, skipped);
+    }
+
+    // Imports the parts of a split NDJSON file side by side, each with its
+    // own batches and transactions, and adds up their summaries
+    public ImportSummaryResponse importContactsFromNdjson(
+        Long userId,
+        List<MultipartFile> parts
+    ) {
+        log.info(
+            "Importing {} NDJSON parts for user id: {}",
+            parts.size(),
+            userId
+        );
+
+        int threads = Math.min(parts.size(), ndjsonParallelParts);
+        List<Future<ImportSummaryResponse>> results = new ArrayList<>();
+        try (
+            ExecutorService executor = Executors.newFixedThreadPool(
+                threads,
+                Thread.ofVirtual().name("ndjson-import-", 0).factory()
+            )
+        ) {
+            for (MultipartFile part : parts) {
+                results.add(
+                    executor.submit(() -> {
+                        try (InputStream in = part.getInputStream()) {
+                            return importContactsFromNdjson(userId, in);
+                        }
+                    })
+                );
+            }
+        }
+
+        // A failed part doesn't undo the others, which have committed by
+        // now, so the error reports what they imported
+        ImportSummaryResponse total = ImportSummaryResponse.builder().build();
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            ImportSummaryResponse summary;
+            try {
+                summary = results.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BadRequestException("NDJSON import was interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ResourceNotFoundException cause) {
+                    throw cause;
+                }
+                failures.add(
+                    "Failed to import NDJSON part " +
+                        (i + 1) +
+                        ": " +
+                        e.getCause().getMessage()
+                );
+                continue;
+            }
+            total.setImported(total.getImported() + summary.getImported());
+            total.setSkipped(total.getSkipped() + summary.getSkipped());
+            if (summary.getFirstId() != null) {
+                total.setFirstId(
+                    total.getFirstId() == null
+                        ? summary.getFirstId()
+                        : Math.min(total.getFirstId(), summary.getFirstId())
+                );
+                total.setLastId(
+                    total.getLastId() == null
+                        ? summary.getLastId()
+                        : Math.max(total.getLastId(), summary.getLastId())
+                );
             }
         }
 
-        return emails;
+        if (!failures.isEmpty()) {
+            throw new BadRequestException(
+                String.join("; ", failures) +
+                    ". The other parts imported " +
+                    total.getImported() +
+                    " contacts" +
+                    (total.getFirstId() != null
+                        ? " (ids " +
+                          total.getFirstId() +
+                          " to " +
+                          total.getLastId() +
+                          ")"
+                        : "")
+            );
+        }
+        return total;
     }
 
-    private List<ContactPhone> parsePhones(String phonesStr, Contact contact) {
-        List<ContactPhone> phones = new ArrayList<>();
-        Pattern pattern = Pattern.compile("([^;]+)\\s*\\(([^)]+)\\)");
+    // Re-runnable import: contacts are matched on their natural key (see
+    // ContactKeys), so importing the same file twice writes nothing the
+    // second time
+    @Transactional
+    public ImportSummaryResponse upsertContactsFromCsv(
+        Long userId,
+        InputStream in
+    ) {
+        log.info("Upserting contacts from CSV for user id: {}", userId);
+        requireUpsertSupport(userId);
 
-        String[] phoneParts = phonesStr.split(";");
-        for (String part : phoneParts) {
-            part = part.trim();
-            if (!part.isEmpty()) {
-                Matcher matcher = pattern.matcher(part);
-                if (matcher.find()) {
-                    String phone = matcher.group(1).trim();
-                    String type = matcher.group(2).trim().toUpperCase();
+        AtomicLong skipped = new AtomicLong();
+        try (CSVParser csvParser = openCsvParser(in)) {
+            Iterator<ContactRequest> requests = csvParser
+                .stream()
+                .filter(record -> {
+                    if (isBlank(record)) {
+                        skipped.incrementAndGet();
+                        return false;
+                    }
+                    return true;
+                })
+                .map(ContactMapper::toRequest)
+                .iterator();
 
-                    PhoneType phoneType;
+            ImportSummaryResponse summary =
+                postgresUpsertImporter.upsertContacts(
+                    userId,
+                    throttled(userId, requests)
+                );
+            contactsChanged(userId, summary.getImported());
+            summary.setSkipped(summary.getSkipped() + skipped.get());
+            logUpsert(summary);
+            return summary;
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            log.error("Error upserting contacts from CSV", e);
+            throw new BadRequestException(
+                "Failed to import contacts from CSV: " + e.getMessage()
+            );
+        }
+    }
+
+    @Transactional
+    public ImportSummaryResponse upsertContactsFromJson(
+        Long userId,
+        InputStream in
+    ) {
+        log.info("Upserting contacts from JSON for user id: {}", userId);
+        requireUpsertSupport(userId);
+
+        AtomicLong skipped = new AtomicLong();
+        try (
+            MappingIterator<JsonNode> nodes = objectMapper
+                .readerFor(JsonNode.class)
+                .readValues(in)
+        ) {
+            // Elements are bound one at a time as the importer pulls them
+            Iterator<ContactRequest> requests = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(nodes, 0),
+                false
+            )
+                .filter(node -> {
+                    if (node.isNull()) {
+                        skipped.incrementAndGet();
+                        return false;
+                    }
+                    return true;
+                })
+                .map(node ->
+                    objectMapper.convertValue(node, ContactRequest.class)
+                )
+                .iterator();
+
+            ImportSummaryResponse summary =
+                postgresUpsertImporter.upsertContacts(
+                    userId,
+                    throttled(userId, requests)
+                );
+            contactsChanged(userId, summary.getImported());
+            summary.setSkipped(summary.getSkipped() + skipped.get());
+            logUpsert(summary);
+            return summary;
+        } catch (
+            IOException
+            | RuntimeJsonMappingException
+            | IllegalArgumentException
+            | DataAccessException e
+        ) {
+            log.error("Error upserting contacts from JSON", e);
+            throw new BadRequestException(
+                "Failed to import contacts from JSON: " + e.getMessage()
+            );
+        }
+    }
+
+    // Writes an {"id":N} line per created contact followed by the summary.
+    // Not transactional: the importers commit a batch at a time and report
+    // ids once their batch has committed, so they are written as they come
+    // and never include rolled-back ones. A failed import ends with an
+    // {"error":...} line after the ids of the batches it did commit.
+    public void writeImportAsNdjson(
+        OutputStream out,
+        Function<LongConsumer, ImportSummaryResponse> importer
+    ) {
+        try (
+            JsonGenerator generator = objectMapper
+                .getFactory()
+                .createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        ) {
+            generator.setRootValueSeparator(null);
+            try {
+                ImportSummaryResponse summary = importer.apply(id -> {
                     try {
-                        phoneType = PhoneType.valueOf(type);
-                    } catch (IllegalArgumentException e) {
-                        phoneType = PhoneType.PERSONAL;
+                        generator.writeStartObject();
+                        generator.writeNumberField("id", id);
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                     }
+                });
+                objectMapper.writeValue(generator, summary);
+            } catch (BadRequestException | ResourceNotFoundException e) {
+                log.warn("NDJSON import failed: {}", e.getMessage());
+                writeError(generator, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("NDJSON import failed", e);
+                writeError(generator, "Failed to import contacts");
+            }
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            log.error("Error writing NDJSON import response", e);
+            throw new BadRequestException("Failed to write import response");
+        }
+    }
+
+    private static void writeError(JsonGenerator generator, String message)
+        throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+    }
 
-                    phones.add(
-                        ContactPhone.builder()
-                            .phoneNumber(phone)
-                            .type(phoneType)
-                            .contact(contact)
-                            .build()
+    // The upsert relies on ON CONFLICT and the other PostgreSQL-only SQL in
+    // PostgresUpsertImporter
+    private void requireUpsertSupport(Long userId) {
+        if (!databasePlatform.isPostgres()) {
+            throw new BadRequestException(
+                "Upsert import requires a PostgreSQL database"
+            );
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+    }
+
+    private void logUpsert(ImportSummaryResponse summary) {
+        log.info(
+            "Upserted contacts: {} inserted, {} updated, {} skipped",
+            summary.getImported(),
+            summary.getUpdated(),
+            summary.getSkipped()
+        );
+    }
+
+    private ImportSummaryResponse importContactsFromArray(
+        Long userId,
+        InputStream in,
+        JsonFactory factory,
+        String format,
+        LongConsumer createdIds
+    ) {
+        log.info(
+            "Streaming contacts from {} for user id: {}",
+            format,
+            userId
+        );
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        LongSummaryStatistics ids = new LongSummaryStatistics();
+        LongConsumer idSink = ids.andThen(createdIds);
+        long skipped = 0;
+        List<Contact> batch = new ArrayList<>(batchSize);
+
+        try (JsonParser parser = factory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException(
+                    "Expected a " + format + " array of contacts"
+                );
+            }
+
+            // Read one contact object at a time instead of the whole array
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NULL) {
+                    skipped++;
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new BadRequestException(
+                        "Expected a " + format + " object for each contact"
                     );
                 }
+
+                ContactRequest request = contactReader.readValue(parser);
+                batch.add(ContactMapper.toEntity(null, request));
+
+                if (batch.size() >= batchSize) {
+                    persistBatch(userId, batch, idSink);
+                }
+            }
+            persistBatch(userId, batch, idSink);
+        } catch (IOException | DataAccessException e) {
+            log.error("Error importing contacts from {}", format, e);
+            throw new BadRequestException(
+                "Failed to import contacts from " +
+                    format +
+                    " after " +
+                    ids.getCount() +
+                    " contacts: " +
+                    e.getMessage()
+            );
+        }
+
+        log.info(
+            "Successfully imported {} contacts from {}",
+            ids.getCount(),
+            format
+        );
+        return summarize(ids, skipped);
+    }
+
+    // Writes the contacts with COPY, then reads them back a batch at a time
+    // (two queries per batch) for callers that return the created contacts
+    private List<ContactResponse> copyContacts(
+        Long userId,
+        List<Contact> contacts
+    ) throws IOException, SQLException {
+        List<Long> ids = new ArrayList<>(contacts.size());
+        postgresCopyImporter.copyContacts(
+            userId,
+            contacts.iterator(),
+            ids::add
+        );
+
+        List<ContactResponse> imported = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(
+                from,
+                Math.min(from + batchSize, ids.size())
+            );
+            Map<Long, Contact> loaded = contactRepository
+                .findAllWithEmailsByIdIn(batch)
+                .stream()
+                .collect(
+                    Collectors.toMap(
+                        Contact::getId,
+                        Function.identity(),
+                        (contact, duplicate) -> contact
+                    )
+                );
+            contactRepository.findAllWithPhonesByIdIn(batch);
+            for (Long id : batch) {
+                imported.add(ContactMapper.toResponse(loaded.get(id)));
+            }
+            entityManager.clear();
+        }
+        return imported;
+    }
+
+    // Past a cut record the parser may fail, which ends a partial read
+    private static CSVRecord nextRecord(
+        Iterator<CSVRecord> records,
+        boolean complete
+    ) {
+        try {
+            return records.hasNext() ? records.next() : null;
+        } catch (UncheckedIOException e) {
+            if (complete) {
+                throw e;
+            }
+            log.debug("Stopped at a cut record: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CSVParser openCsvParser(InputStream in) throws IOException {
+        return new CSVParser(
+            new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8)
+            ),
+            CSV_FORMAT
+        );
+    }
+
+    private void persistInBatches(
+        Long userId,
+        Iterator<Contact> contacts,
+        LongConsumer createdIds
+    ) {
+        List<Contact> batch = new ArrayList<>(batchSize);
+        while (contacts.hasNext()) {
+            batch.add(contacts.next());
+            if (batch.size() >= batchSize) {
+                persistBatch(userId, batch, createdIds);
+            }
+        }
+        persistBatch(userId, batch, createdIds);
+    }
+
+    // COPYs a batch per transaction, waiting for the row rate between them
+    private void copyInBatches(
+        Long userId,
+        Iterator<Contact> contacts,
+        LongConsumer createdIds
+    ) {
+        List<Contact> batch = new ArrayList<>(PostgresCopyImporter.BATCH_SIZE);
+        while (contacts.hasNext()) {
+            batch.add(contacts.next());
+            if (
+                batch.size() < PostgresCopyImporter.BATCH_SIZE &&
+                contacts.hasNext()
+            ) {
+                continue;
+            }
+
+            importThrottle.acquireRows(userId, batch.size());
+            List<Long> ids = new ArrayList<>(batch.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    postgresCopyImporter.copyContacts(
+                        userId,
+                        batch.iterator(),
+                        ids::add
+                    );
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (SQLException e) {
+                    throw new UncategorizedSQLException("COPY", null, e);
+                }
+                contactsChanged(userId, ids.size());
+            });
+
+            // Only report ids once they are committed
+            ids.forEach(createdIds::accept);
+            batch.clear();
+        }
+    }
+
+    // Commits the batch in its own transaction, waiting for the row rate
+    // before it opens so no connection is held meanwhile, and detaches it,
+    // so the persistence context never holds more than one batch. Callers
+    // build the contacts without their user.
+    private void persistBatch(
+        Long userId,
+        List<Contact> batch,
+        LongConsumer createdIds
+    ) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        importThrottle.acquireRows(userId, batch.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.getReferenceById(userId);
+            for (Contact contact : batch) {
+                contact.setUser(user);
+            }
+            contactRepository.saveAll(batch);
+            entityManager.flush();
+            entityManager.clear();
+            contactsChanged(userId, batch.size());
+        });
+
+        // Only report ids once they are committed
+        for (Contact contact : batch) {
+            createdIds.accept(contact.getId());
+        }
+        batch.clear();
+    }
+
+    private void commitBatch(
+        Long userId,
+        List<ContactRequest> requests,
+        LongConsumer createdIds
+    ) {
+        List<Contact> batch = new ArrayList<>(requests.size());
+        for (ContactRequest request : requests) {
+            batch.add(ContactMapper.toEntity(null, request));
+        }
+        persistBatch(userId, batch, createdIds);
+        requests.clear();
+    }
+
+    // Charges the user's row rate for the rows the importer pulls, a batch
+    // at a time and the rest once they run out, for the writers that take an
+    // iterator in one transaction. They don't wait, which would hold the
+    // transaction's connection; the user's next import pays instead.
+    private <T> Iterator<T> throttled(Long userId, Iterator<T> rows) {
+        return new Iterator<>() {
+            private int uncharged;
+
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = rows.hasNext();
+                if (!hasNext) {
+                    charge();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                T row = rows.next();
+                if (++uncharged >= batchSize) {
+                    charge();
+                }
+                return row;
             }
+
+            private void charge() {
+                importThrottle.chargeRows(userId, uncharged);
+                uncharged = 0;
+            }
+        };
+    }
+
+    // Counts the created contacts towards the user's total, in the same
+    // transaction; cached exports of the user are dropped once it commits
+    private void contactsChanged(Long userId, long created) {
+        if (created > 0) {
+            userRepository.adjustContactCount(userId, created);
         }
+        eventPublisher.publishEvent(new ContactsChangedEvent(userId));
+    }
 
-        return phones;
+    private ImportSummaryResponse summarize(
+        LongSummaryStatistics ids,
+        long skipped
+    ) {
+        ImportSummaryResponse summary = ImportSummaryResponse.builder()
+            .imported(ids.getCount())
+            .skipped(skipped)
+            .build();
+        if (ids.getCount() > 0) {
+            summary.setFirstId(ids.getMin());
+            summary.setLastId(ids.getMax());
+        }
+        return summary;
+    }
+
+    private boolean isBlank(CSVRecord record) {
+        for (String value : record) {
+            if (!value.isBlank()) {
+                return false;
+            }
+        }
+        return true;
     }
 }
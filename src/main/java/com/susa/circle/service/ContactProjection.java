@@ -0,0 +1,307 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.response.EmailResponse;
+import com.susa.circle.dto.response.PhoneResponse;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.ContactField;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.mapper.ContactCellCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The fields picked with ?fields= on the exports. Only the selected columns
+// are queried, and emails and phones are loaded with one query per chunk,
+// and only when they were asked for.
+public final class ContactProjection {
+
+    private static final Map<String, ContactField> FIELDS_BY_NAME = Arrays
+        .stream(ContactField.values())
+        .collect(
+            Collectors.toMap(
+                field -> field.getFieldName().toLowerCase(Locale.ROOT),
+                Function.identity()
+            )
+        );
+
+    private static final String EMAILS_QUERY =
+        "SELECT e.contact.id, e.id, e.email, e.type FROM ContactEmail e " +
+        "WHERE e.contact.id IN :ids ORDER BY e.id";
+
+    // The first email added to each contact
+    private static final String PRIMARY_EMAILS_QUERY =
+        "SELECT e.contact.id, e.id, e.email, e.type FROM ContactEmail e " +
+        "WHERE e.id IN (SELECT MIN(m.id) FROM ContactEmail m " +
+        "WHERE m.contact.id IN :ids GROUP BY m.contact.id)";
+
+    private static final String PHONES_QUERY =
+        "SELECT p.contact.id, p.id, p.phoneNumber, p.type " +
+        "FROM ContactPhone p WHERE p.contact.id IN :ids ORDER BY p.id";
+
+    private final List<ContactField> fields;
+    // Tuple index of each selected contact column, or -1
+    private final int[] columns;
+    private final String contactQuery;
+
+    private ContactProjection(List<ContactField> fields) {
+        this.fields = fields;
+        this.columns = new int[fields.size()];
+
+        StringBuilder query = new StringBuilder("SELECT c.id");
+        int column = 1;
+        for (int i = 0; i < fields.size(); i++) {
+            String path = columnPath(fields.get(i));
+            if (path != null) {
+                query.append(", ").append(path);
+                columns[i] = column++;
+            } else {
+                columns[i] = -1;
+            }
+        }
+        query.append(
+            " FROM Contact c WHERE c.user.id = :userId AND c.id > :afterId" +
+                " ORDER BY c.id"
+        );
+        this.contactQuery = query.toString();
+    }
+
+    // Returns null when no fields were given, which means every field
+    public static ContactProjection parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+
+        Set<ContactField> selected = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            ContactField field = FIELDS_BY_NAME.get(
+                trimmed.toLowerCase(Locale.ROOT)
+            );
+            if (field == null) {
+                throw new BadRequestException(
+                    "Unknown export field: " +
+                        trimmed +
+                        ". Supported fields: " +
+                        supportedFields()
+                );
+            }
+            selected.add(field);
+        }
+        if (selected.isEmpty()) {
+            throw new BadRequestException("No export fields selected");
+        }
+
+        return new ContactProjection(List.copyOf(selected));
+    }
+
+    public List<ContactField> getFields() {
+        return fields;
+    }
+
+    String[] csvHeader() {
+        return fields
+            .stream()
+            .map(ContactField::getCsvHeader)
+            .toArray(String[]::new);
+    }
+
+    List<Row> readChunk(
+        EntityManager entityManager,
+        Long userId,
+        long afterId,
+        int limit
+    ) {
+        List<Tuple> tuples = entityManager
+            .createQuery(contactQuery, Tuple.class)
+            .setParameter("userId", userId)
+            .setParameter("afterId", afterId)
+            .setMaxResults(limit)
+            .getResultList();
+        if (tuples.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Row> rows = new LinkedHashMap<>();
+        for (Tuple tuple : tuples) {
+            Long id = tuple.get(0, Long.class);
+            rows.put(id, new Row(id, tuple));
+        }
+
+        boolean emails = fields.contains(ContactField.EMAILS);
+        if (emails || fields.contains(ContactField.PRIMARY_EMAIL)) {
+            loadEmails(
+                entityManager,
+                rows,
+                emails ? EMAILS_QUERY : PRIMARY_EMAILS_QUERY
+            );
+        }
+        if (fields.contains(ContactField.PHONES)) {
+            loadPhones(entityManager, rows);
+        }
+
+        return new ArrayList<>(rows.values());
+    }
+
+    Object[] csvValues(Row row) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = value(row, i);
+            values[i] = switch (fields.get(i)) {
+                case EMAILS -> ContactCellCodec.formatEmails(row.emails);
+                case PHONES -> ContactCellCodec.formatPhones(row.phones);
+                case CREATED_AT, UPDATED_AT -> value != null
+                    ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(
+                          (LocalDateTime) value
+                      )
+                    : "";
+                default -> value != null ? value : "";
+            };
+        }
+        return values;
+    }
+
+    // Same names and shapes as ContactResponse, limited to the selection
+    Map<String, Object> jsonValues(Row row) {
+        Map<String, Object> values = LinkedHashMap.newLinkedHashMap(
+            fields.size()
+        );
+        for (int i = 0; i < fields.size(); i++) {
+            ContactField field = fields.get(i);
+            Object value = switch (field) {
+                case EMAILS -> row.emails
+                    .stream()
+                    .map(email ->
+                        new EmailResponse(
+                            email.getId(),
+                            email.getEmail(),
+                            email.getType()
+                        )
+                    )
+                    .toList();
+                case PHONES -> row.phones
+                    .stream()
+                    .map(phone ->
+                        new PhoneResponse(
+                            phone.getId(),
+                            phone.getPhoneNumber(),
+                            phone.getType()
+                        )
+                    )
+                    .toList();
+                default -> value(row, i);
+            };
+            values.put(field.getFieldName(), value);
+        }
+        return values;
+    }
+
+    private Object value(Row row, int index) {
+        return switch (fields.get(index)) {
+            case ID -> row.id;
+            case PRIMARY_EMAIL -> row.primaryEmail;
+            case EMAILS, PHONES -> null;
+            default -> row.tuple.get(columns[index]);
+        };
+    }
+
+    private static void loadEmails(
+        EntityManager entityManager,
+        Map<Long, Row> rows,
+        String query
+    ) {
+        List<Tuple> tuples = entityManager
+            .createQuery(query, Tuple.class)
+            .setParameter("ids", rows.keySet())
+            .getResultList();
+        for (Tuple tuple : tuples) {
+            Row row = rows.get(tuple.get(0, Long.class));
+            ContactEmail email = ContactEmail.builder()
+                .id(tuple.get(1, Long.class))
+                .email(tuple.get(2, String.class))
+                .type(tuple.get(3, EmailType.class))
+                .build();
+            if (row.emails.isEmpty()) {
+                row.emails = new ArrayList<>();
+                row.primaryEmail = email.getEmail();
+            }
+            row.emails.add(email);
+        }
+    }
+
+    private static void loadPhones(
+        EntityManager entityManager,
+        Map<Long, Row> rows
+    ) {
+        List<Tuple> tuples = entityManager
+            .createQuery(PHONES_QUERY, Tuple.class)
+            .setParameter("ids", rows.keySet())
+            .getResultList();
+        for (Tuple tuple : tuples) {
+            Row row = rows.get(tuple.get(0, Long.class));
+            if (row.phones.isEmpty()) {
+                row.phones = new ArrayList<>();
+            }
+            row.phones.add(
+                ContactPhone.builder()
+                    .id(tuple.get(1, Long.class))
+                    .phoneNumber(tuple.get(2, String.class))
+                    .type(tuple.get(3, PhoneType.class))
+                    .build()
+            );
+        }
+    }
+
+    private static String columnPath(ContactField field) {
+        return switch (field) {
+            case FIRST_NAME -> "c.firstName";
+            case LAST_NAME -> "c.lastName";
+            case TITLE -> "c.title";
+            case CREATED_AT -> "c.createdAt";
+            case UPDATED_AT -> "c.updatedAt";
+            default -> null;
+        };
+    }
+
+    private static String supportedFields() {
+        return Arrays.stream(ContactField.values())
+            .map(ContactField::getFieldName)
+            .collect(Collectors.joining(", "));
+    }
+
+    // One exported contact. Holds plain values, not managed entities, so it
+    // can be written after the chunk's transaction has ended.
+    static final class Row {
+
+        private final Long id;
+        private final Tuple tuple;
+        private List<ContactEmail> emails = List.of();
+        private List<ContactPhone> phones = List.of();
+        private String primaryEmail;
+
+        private Row(Long id, Tuple tuple) {
+            this.id = id;
+            this.tuple = tuple;
+        }
+
+        Long getId() {
+            return id;
+        }
+    }
+}
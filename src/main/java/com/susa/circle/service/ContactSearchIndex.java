@@ -0,0 +1,497 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.dto.response.EmailResponse;
+import com.susa.circle.dto.response.PhoneResponse;
+import com.susa.circle.event.ContactsChangedEvent;
+import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.mapper.ContactMapper;
+import com.susa.circle.repository.ContactRepository;
+import com.susa.circle.repository.UserRepository;
+import java.lang.ref.SoftReference;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Optional in-process contact search for typeahead: once a user's index is
+// built, a search is answered from memory without touching the database.
+// Each user gets an inverted index from the words of their contacts' names,
+// titles and emails, and from the digits of their phones, to the contacts; a
+// bigram index over those words finds the ones a query word may match,
+// allowing a few typos in longer words. Matches are also ordered and paged
+// here, with a collator for the configured locale standing in for the
+// database's collation; set it to the database's locale so that results and
+// cursors agree whichever path served them.
+//
+// An index is built on the user's first search and patched by the
+// single-contact events of ContactService; a bulk change such as an import
+// drops it, to be rebuilt on the next search. Indexes are held through soft
+// references, so the JVM reclaims them when it runs short of memory. Like
+// ContactExportCache, this only sees writes made by this instance.
+@Service
+@Slf4j
+public class ContactSearchIndex {
+
+    private static final int GRAM = 2;
+    private static final Pattern SEPARATORS = Pattern.compile(
+        "[^\\p{L}\\p{N}]+"
+    );
+
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long maxContacts;
+    private final int maxEdits;
+    private final Locale collation;
+
+    private final Map<Long, SoftReference<UserIndex>> indexes =
+        new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public ContactSearchIndex(
+        ContactRepository contactRepository,
+        UserRepository userRepository,
+        @Value("${contacts.search.in-memory.enabled:false}") boolean enabled,
+        @Value(
+            "${contacts.search.in-memory.max-contacts:100000}"
+        ) long maxContacts,
+        @Value("${contacts.search.in-memory.max-edits:2}") int maxEdits,
+        @Value("${contacts.search.in-memory.collation:en-US}") String collation
+    ) {
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.maxContacts = maxContacts;
+        this.maxEdits = maxEdits;
+        this.collation = Locale.forLanguageTag(collation);
+    }
+
+    // The user's contacts matching every word of the query, in sort order.
+    // Empty when the index is off or the user has more contacts than it
+    // holds, in which case the database search applies. Must be called in a
+    // transaction, which loads the contacts when the index is built.
+    public Optional<List<ContactResponse>> search(
+        Long userId,
+        String query,
+        Sort sort
+    ) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Comparator<ContactResponse> order = order(sort);
+        return matches(userId, query).map(matches -> {
+            matches.sort(order);
+            return matches;
+        });
+    }
+
+    // At most limit matches following cursor in its order
+    public Optional<List<ContactResponse>> searchAfter(
+        Long userId,
+        String query,
+        ContactCursor cursor,
+        int limit
+    ) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Comparator<ContactResponse> order = order(ContactCursor.ORDER);
+        ContactResponse last = ContactResponse.builder()
+            .id(cursor.getId())
+            .lastName(cursor.getLastName())
+            .firstName(cursor.getFirstName())
+            .build();
+        return matches(userId, query).map(matches -> {
+            matches.sort(order);
+            int found = Collections.binarySearch(matches, last, order);
+            int from = found >= 0 ? found + 1 : -found - 1;
+            return matches.subList(
+                from,
+                Math.min(from + limit, matches.size())
+            );
+        });
+    }
+
+    private Optional<List<ContactResponse>> matches(
+        Long userId,
+        String query
+    ) {
+        UserIndex index = loaded(userId);
+        if (index == null) {
+            index = build(userId);
+            if (index == null) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(index.search(words(query)));
+    }
+
+    // The database's order for the same sort: strings by collation, nulls
+    // last ascending and first descending, ties broken by id. A string's
+    // collation key is computed once per search, not per comparison.
+    private Comparator<ContactResponse> order(Sort sort) {
+        Collator collator = Collator.getInstance(collation);
+        Map<String, CollationKey> keys = new HashMap<>();
+        Comparator<ContactResponse> order = null;
+        for (Sort.Order property : sort.and(Sort.by("id"))) {
+            Function<String, CollationKey> collated = value -> {
+                if (value == null) {
+                    return null;
+                }
+                String key = property.isIgnoreCase()
+                    ? value.toLowerCase(collation)
+                    : value;
+                return keys.computeIfAbsent(key, collator::getCollationKey);
+            };
+            // Same sort properties as the database search
+            Comparator<ContactResponse> next = switch (property.getProperty()) {
+                case "id" -> comparing(ContactResponse::getId, property);
+                case "firstName" -> comparing(
+                    contact -> collated.apply(contact.getFirstName()),
+                    property
+                );
+                case "lastName" -> comparing(
+                    contact -> collated.apply(contact.getLastName()),
+                    property
+                );
+                case "title" -> comparing(
+                    contact -> collated.apply(contact.getTitle()),
+                    property
+                );
+                case "createdAt" -> comparing(
+                    ContactResponse::getCreatedAt,
+                    property
+                );
+                case "updatedAt" -> comparing(
+                    ContactResponse::getUpdatedAt,
+                    property
+                );
+                default -> throw new BadRequestException(
+                    "Cannot sort contacts by " + property.getProperty()
+                );
+            };
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+
+    private static <
+        T extends Comparable<? super T>
+    > Comparator<ContactResponse> comparing(
+        Function<ContactResponse, T> key,
+        Sort.Order property
+    ) {
+        Comparator<ContactResponse> order = Comparator.comparing(
+            key,
+            Comparator.nullsLast(Comparator.naturalOrder())
+        );
+        return property.isAscending() ? order : order.reversed();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactsChanged(ContactsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        AtomicLong version = version(event.userId());
+        synchronized (version) {
+            version.incrementAndGet();
+            UserIndex index = loaded(event.userId());
+            if (index == null) {
+                return;
+            }
+            if (event.saved() != null) {
+                index.put(event.saved());
+            } else if (event.deletedId() != null) {
+                index.remove(event.deletedId());
+            } else {
+                indexes.remove(event.userId());
+            }
+        }
+    }
+
+    private UserIndex build(Long userId) {
+        long contacts = userRepository
+            .findContactCountById(userId)
+            .orElseGet(() -> contactRepository.countByUserId(userId));
+        if (contacts > maxContacts) {
+            return null;
+        }
+
+        // A change committed from here on bumps the version, and the index
+        // that might have missed it is used for this search only
+        AtomicLong version = version(userId);
+        long builtAt = version.get();
+
+        UserIndex index = new UserIndex(maxEdits);
+        contactRepository.findAllWithEmailsByUserId(userId);
+        contactRepository
+            .findAllWithPhonesByUserId(userId)
+            .stream()
+            .map(ContactMapper::toResponse)
+            .forEach(index::put);
+
+        synchronized (version) {
+            if (version.get() == builtAt) {
+                indexes.put(userId, new SoftReference<>(index));
+            }
+        }
+        log.debug("Indexed {} contacts of user id: {}", contacts, userId);
+        return index;
+    }
+
+    private UserIndex loaded(Long userId) {
+        SoftReference<UserIndex> reference = indexes.get(userId);
+        if (reference == null) {
+            return null;
+        }
+        UserIndex index = reference.get();
+        if (index == null) {
+            // Reclaimed by the garbage collector
+            indexes.remove(userId, reference);
+        }
+        return index;
+    }
+
+    private AtomicLong version(Long userId) {
+        return versions.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(
+            SEPARATORS.split(text.toLowerCase(Locale.ROOT))
+        )
+            .filter(word -> !word.isEmpty())
+            .distinct()
+            .toList();
+    }
+
+    private static Set<String> words(ContactResponse contact) {
+        Set<String> words = new LinkedHashSet<>();
+        words.addAll(words(contact.getFirstName()));
+        words.addAll(words(contact.getLastName()));
+        words.addAll(words(contact.getTitle()));
+        if (contact.getEmails() != null) {
+            for (EmailResponse email : contact.getEmails()) {
+                words.addAll(words(email.getEmail()));
+            }
+        }
+        if (contact.getPhones() != null) {
+            for (PhoneResponse phone : contact.getPhones()) {
+                String digits = phone.getPhoneNumber() == null
+                    ? ""
+                    : phone.getPhoneNumber().replaceAll("[^0-9]", "");
+                if (!digits.isEmpty()) {
+                    words.add(digits);
+                }
+            }
+        }
+        return words;
+    }
+
+    // A word shorter than a bigram stands for itself
+    private static Set<String> grams(String word) {
+        if (word.length() < GRAM) {
+            return Set.of(word);
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            grams.add(word.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    // Fewest edits that turn query into a substring of word, or max + 1 once
+    // it is known to be more than max
+    static int substringDistance(String query, String word, int max) {
+        int[] previous = new int[word.length() + 1];
+        int[] current = new int[word.length() + 1];
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int best = i;
+            for (int j = 1; j <= word.length(); j++) {
+                int substitution =
+                    previous[j - 1] +
+                    (query.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(
+                    substitution,
+                    Math.min(previous[j], current[j - 1]) + 1
+                );
+                best = Math.min(best, current[j]);
+            }
+            if (best > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        int distance = Integer.MAX_VALUE;
+        for (int cost : previous) {
+            distance = Math.min(distance, cost);
+        }
+        return distance;
+    }
+
+    private static final class UserIndex {
+
+        private final int maxEdits;
+    private final Locale collation;
+        private final Map<Long, ContactResponse> contacts = new HashMap<>();
+        private final Map<Long, Set<String>> wordsByContact = new HashMap<>();
+        // Word to the contacts that have it
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        // Bigram to the words that contain it
+        private final Map<String, Set<String>> wordsByGram = new HashMap<>();
+
+        private UserIndex(int maxEdits) {
+            this.maxEdits = maxEdits;
+        }
+
+        private synchronized void put(ContactResponse contact) {
+            remove(contact.getId());
+            Set<String> words = words(contact);
+            contacts.put(contact.getId(), contact);
+            wordsByContact.put(contact.getId(), words);
+            for (String word : words) {
+                Set<Long> ids = postings.get(word);
+                if (ids == null) {
+                    ids = new HashSet<>();
+                    postings.put(word, ids);
+                    for (String gram : grams(word)) {
+                        wordsByGram
+                            .computeIfAbsent(gram, g -> new HashSet<>())
+                            .add(word);
+                    }
+                }
+                ids.add(contact.getId());
+            }
+        }
+
+        private synchronized void remove(Long contactId) {
+            contacts.remove(contactId);
+            Set<String> words = wordsByContact.remove(contactId);
+            if (words == null) {
+                return;
+            }
+            for (String word : words) {
+                Set<Long> ids = postings.get(word);
+                ids.remove(contactId);
+                if (ids.isEmpty()) {
+                    postings.remove(word);
+                    for (String gram : grams(word)) {
+                        Set<String> gramWords = wordsByGram.get(gram);
+                        gramWords.remove(word);
+                        if (gramWords.isEmpty()) {
+                            wordsByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Contacts that match every query word, each through any one of
+        // their words
+        private synchronized List<ContactResponse> search(List<String> query) {
+            Set<Long> ids = null;
+            for (String queryWord : query) {
+                Set<Long> matching = new HashSet<>();
+                for (String word : candidates(queryWord)) {
+                    matching.addAll(postings.get(word));
+                }
+                if (ids == null) {
+                    ids = matching;
+                } else {
+                    ids.retainAll(matching);
+                }
+                if (ids.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            List<ContactResponse> matches = new ArrayList<>();
+            for (Long id : ids == null ? contacts.keySet() : ids) {
+                matches.add(contacts.get(id));
+            }
+            return matches;
+        }
+
+        // Words that contain queryWord with at most edits(queryWord) typos.
+        // A single character is found through the bigrams that contain it.
+        private Collection<String> candidates(String queryWord) {
+            if (queryWord.length() < GRAM) {
+                Set<String> words = new HashSet<>();
+                wordsByGram.forEach((gram, gramWords) -> {
+                    if (gram.contains(queryWord)) {
+                        words.addAll(gramWords);
+                    }
+                });
+                return words;
+            }
+
+            int edits = edits(queryWord);
+            Set<String> grams = grams(queryWord);
+            // Each edit changes at most GRAM of the query's bigrams, so a
+            // match shares at least this many of them; edits() allows few
+            // enough typos that it is positive, so only words sharing a
+            // bigram with the query are ever compared
+            int minShared = Math.max(1, grams.size() - edits * GRAM);
+
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                for (String word : wordsByGram.getOrDefault(gram, Set.of())) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+
+            return shared
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getValue() >= minShared)
+                .map(Map.Entry::getKey)
+                .filter(word ->
+                    edits == 0
+                        ? word.contains(queryWord)
+                        : substringDistance(queryWord, word, edits) <= edits
+                )
+                .toList();
+        }
+
+        // No typos in short words or in numbers, where one wrong digit is a
+        // different number; one from 4 letters, two from 8
+        private int edits(String queryWord) {
+            if (queryWord.chars().allMatch(Character::isDigit)) {
+                return 0;
+            }
+            int edits = queryWord.length() >= 8
+                ? 2
+                : queryWord.length() >= 4 ? 1 : 0;
+            return Math.min(edits, maxEdits);
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package com.susa.circle.service;
 
+import com.susa.circle.config.DatabasePlatform;
 import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.response.ContactCursorPage;
 import com.susa.circle.dto.response.ContactResponse;
 import com.susa.circle.entity.Contact;
 import com.susa.circle.entity.ContactEmail;
 import com.susa.circle.entity.ContactPhone;
 import com.susa.circle.entity.User;
+import com.susa.circle.event.ContactsChangedEvent;
 import com.susa.circle.exception.BadRequestException;
 import com.susa.circle.exception.ResourceNotFoundException;
 import com.susa.circle.mapper.ContactMapper;
 import com.susa.circle.repository.ContactRepository;
 import com.susa.circle.repository.UserRepository;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +38,10 @@ public class ContactService {
 
     private final ContactRepository contactRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabasePlatform databasePlatform;
+    private final PostgresContactSearch postgresContactSearch;
+    private final ContactSearchIndex contactSearchIndex;
 
     @Transactional
     public ContactResponse createContact(Long userId, ContactRequest request) {
@@ -77,12 +91,17 @@ public class ContactService {
         }
 
         Contact savedContact = contactRepository.save(contact);
+        userRepository.adjustContactCount(userId, 1);
+        ContactResponse response = ContactMapper.toResponse(savedContact);
+        eventPublisher.publishEvent(
+            ContactsChangedEvent.saved(userId, response)
+        );
         log.info(
             "Contact created successfully with id: {}",
             savedContact.getId()
         );
 
-        return ContactMapper.toResponse(savedContact);
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -92,19 +111,32 @@ public class ContactService {
     ) {
         log.debug("Fetching contacts for user id: {}", userId);
 
-        Page<Contact> contacts = contactRepository.findByUserId(
+        // The total comes from the maintained count instead of a COUNT query,
+        // and is only looked up when the page itself doesn't tell it
+        Slice<Long> ids = contactRepository.findIdSliceByUserId(
             userId,
             pageable
         );
+        return PageableExecutionUtils.getPage(
+            loadContacts(ids.getContent()),
+            pageable,
+            () -> contactCount(userId)
+        );
+    }
 
-        // Manual conversion to avoid Streamable/Page issue
-        List<ContactResponse> content = contacts
-            .getContent()
-            .stream()
-            .map(ContactMapper::toResponse)
-            .collect(Collectors.toList());
+    // Without the total: no count at all, only whether a next page exists
+    @Transactional(readOnly = true)
+    public Slice<ContactResponse> getContactSlice(
+        Long userId,
+        Pageable pageable
+    ) {
+        log.debug("Fetching contact slice for user id: {}", userId);
 
-        return new PageImpl<>(content, pageable, contacts.getTotalElements());
+        Slice<Long> ids = contactRepository.findIdSliceByUserId(
+            userId,
+            pageable
+        );
+        return loadSlice(ids);
     }
 
     @Transactional(readOnly = true)
@@ -119,20 +151,62 @@ public class ContactService {
             search
         );
 
-        Page<Contact> contacts = contactRepository.searchContactsByUserId(
+        // Matched, ordered and paged in memory when the in-process index is
+        // enabled and holds the user; the database search otherwise
+        Optional<List<ContactResponse>> indexed =
+            contactSearchIndex.search(userId, search, pageable.getSort());
+        if (indexed.isPresent()) {
+            List<ContactResponse> matches = indexed.get();
+            return new PageImpl<>(
+                indexedPage(matches, pageable),
+                pageable,
+                matches.size()
+            );
+        }
+
+        // Names, titles, emails and phones through the trigram indexes on
+        // PostgreSQL; elsewhere the plain name LIKE
+        Page<Long> ids = databasePlatform.isPostgres()
+            ? postgresContactSearch.searchIds(userId, search, pageable)
+            : contactRepository.searchContactIdsByUserId(
+                  userId,
+                  search,
+                  pageable
+              );
+        return loadPage(ids, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ContactResponse> searchContactSlice(
+        Long userId,
+        String search,
+        Pageable pageable
+    ) {
+        log.debug(
+            "Searching contact slice for user id: {} with search term: {}",
             userId,
-            search,
-            pageable
+            search
         );
 
-        // Manual conversion to avoid Streamable/Page issue
-        List<ContactResponse> content = contacts
-            .getContent()
-            .stream()
-            .map(ContactMapper::toResponse)
-            .collect(Collectors.toList());
+        Optional<List<ContactResponse>> indexed =
+            contactSearchIndex.search(userId, search, pageable.getSort());
+        if (indexed.isPresent()) {
+            List<ContactResponse> matches = indexed.get();
+            return new SliceImpl<>(
+                indexedPage(matches, pageable),
+                pageable,
+                pageable.getOffset() + pageable.getPageSize() < matches.size()
+            );
+        }
 
-        return new PageImpl<>(content, pageable, contacts.getTotalElements());
+        Slice<Long> ids = databasePlatform.isPostgres()
+            ? postgresContactSearch.searchIdSlice(userId, search, pageable)
+            : contactRepository.searchContactIdSliceByUserId(
+                  userId,
+                  search,
+                  pageable
+              );
+        return loadSlice(ids);
     }
 
     @Transactional(readOnly = true)
@@ -206,14 +280,22 @@ public class ContactService {
             }
         }
 
+        // The upsert import recomputes these on its next run
+        contact.setNaturalKey(null);
+        contact.setContentHash(null);
+
         // Save and return updated contact
         Contact updatedContact = contactRepository.save(contact);
+        ContactResponse response = ContactMapper.toResponse(updatedContact);
+        eventPublisher.publishEvent(
+            ContactsChangedEvent.saved(userId, response)
+        );
         log.info(
             "Contact updated successfully with id: {}",
             updatedContact.getId()
         );
 
-        return ContactMapper.toResponse(updatedContact);
+        return response;
     }
 
     @Transactional
@@ -233,6 +315,168 @@ public class ContactService {
         }
 
         contactRepository.delete(contact);
+        userRepository.adjustContactCount(userId, -1);
+        eventPublisher.publishEvent(
+            ContactsChangedEvent.deleted(userId, contactId)
+        );
         log.info("Contact deleted successfully with id: {}", contactId);
     }
+
+    // Keyset listing in (lastName, firstName, id) order: the page after
+    // cursor, found with an index seek instead of skipping earlier rows
+    @Transactional(readOnly = true)
+    public ContactCursorPage getContactsAfter(
+        Long userId,
+        ContactCursor cursor,
+        int size
+    ) {
+        log.debug("Fetching contacts for user id: {} after cursor", userId);
+
+        // One row more than asked for tells whether there is a next page
+        List<Long> ids = contactRepository.findIdsByUserIdAfterName(
+            userId,
+            cursor.getLastName(),
+            cursor.getFirstName(),
+            cursor.getId(),
+            size + 1
+        );
+        return loadCursorPage(ids, size);
+    }
+
+    @Transactional(readOnly = true)
+    public ContactCursorPage searchContactsAfter(
+        Long userId,
+        String search,
+        ContactCursor cursor,
+        int size
+    ) {
+        log.debug(
+            "Searching contacts for user id: {} with search term: {} after " +
+                "cursor",
+            userId,
+            search
+        );
+
+        Optional<List<ContactResponse>> indexed =
+            contactSearchIndex.searchAfter(userId, search, cursor, size + 1);
+        if (indexed.isPresent()) {
+            List<ContactResponse> matches = indexed.get();
+            boolean hasNext = matches.size() > size;
+            return cursorPage(
+                hasNext ? matches.subList(0, size) : matches,
+                size,
+                hasNext
+            );
+        }
+
+        List<Long> ids = databasePlatform.isPostgres()
+            ? postgresContactSearch.searchIdsAfterName(
+                  userId,
+                  search,
+                  cursor.getLastName(),
+                  cursor.getFirstName(),
+                  cursor.getId(),
+                  size + 1
+              )
+            : contactRepository.searchIdsByUserIdAfterName(
+                  userId,
+                  search,
+                  cursor.getLastName(),
+                  cursor.getFirstName(),
+                  cursor.getId(),
+                  size + 1
+              );
+        return loadCursorPage(ids, size);
+    }
+
+    private ContactCursorPage loadCursorPage(List<Long> ids, int size) {
+        boolean hasNext = ids.size() > size;
+        return cursorPage(
+            loadContacts(hasNext ? ids.subList(0, size) : ids),
+            size,
+            hasNext
+        );
+    }
+
+    private static ContactCursorPage cursorPage(
+        List<ContactResponse> content,
+        int size,
+        boolean hasNext
+    ) {
+        return ContactCursorPage.builder()
+            .content(content)
+            .size(size)
+            .nextCursor(
+                hasNext
+                    ? ContactCursor.after(content.get(size - 1)).encode()
+                    : null
+            )
+            .build();
+    }
+
+    // The requested page of the ordered ContactSearchIndex matches
+    private static List<ContactResponse> indexedPage(
+        List<ContactResponse> matches,
+        Pageable pageable
+    ) {
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = (int) Math.min(
+            (long) from + pageable.getPageSize(),
+            matches.size()
+        );
+        return matches.subList(from, to);
+    }
+
+    // Three statements per page whatever its size (and the count, when Spring
+    // Data needs it): the page of ids, then the contacts with their emails
+    // and with their phones. Mapping the paged entities directly would load
+    // both lazy bags of every contact one by one.
+    private Page<ContactResponse> loadPage(Page<Long> ids, Pageable pageable) {
+        // Manual conversion to avoid Streamable/Page issue
+        return new PageImpl<>(
+            loadContacts(ids.getContent()),
+            pageable,
+            ids.getTotalElements()
+        );
+    }
+
+    private Slice<ContactResponse> loadSlice(Slice<Long> ids) {
+        return new SliceImpl<>(
+            loadContacts(ids.getContent()),
+            ids.getPageable(),
+            ids.hasNext()
+        );
+    }
+
+    // Users created before the count existed fall back to counting until
+    // ContactCountInitializer has run
+    private long contactCount(Long userId) {
+        return userRepository
+            .findContactCountById(userId)
+            .orElseGet(() -> contactRepository.countByUserId(userId));
+    }
+
+    // In the order of ids
+    private List<ContactResponse> loadContacts(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Contact> contacts = contactRepository
+            .findAllWithEmailsByIdIn(ids)
+            .stream()
+            .collect(
+                Collectors.toMap(
+                    Contact::getId,
+                    Function.identity(),
+                    (contact, duplicate) -> contact
+                )
+            );
+        contactRepository.findAllWithPhonesByIdIn(ids);
+
+        return ids
+            .stream()
+            .map(id -> ContactMapper.toResponse(contacts.get(id)))
+            .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,10 @@
+package com.susa.circle.service;
+
+import java.util.List;
+
+// Where a checkpointed CSV import stands after its last committed batch:
+// the records consumed, the byte offset of the next record in the file and
+// the header, which a resumed read no longer sees
+public record CsvCheckpoint(long rows, long bytes, List<String> header) {
+    public static final CsvCheckpoint START = new CsvCheckpoint(0, 0, null);
+}
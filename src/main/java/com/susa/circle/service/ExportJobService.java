@@ -0,0 +1,258 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.response.ExportJobResponse;
+import com.susa.circle.enums.ExportFormat;
+import com.susa.circle.enums.ExportJobStatus;
+import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.exception.ResourceNotFoundException;
+import com.susa.circle.exception.TooManyRequestsException;
+import com.susa.circle.mapper.VCardWriter;
+import com.susa.circle.repository.ContactRepository;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+public class ExportJobService {
+
+    private final ContactExportService contactExportService;
+    private final ContactRepository contactRepository;
+    private final TaskExecutor exportJobExecutor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${contacts.export.spool-dir:${java.io.tmpdir}/circle-exports}")
+    private String spoolDirectory;
+
+    @Value("${contacts.export.jobs.retention:PT1H}")
+    private Duration retention;
+
+    private Path spoolDir;
+
+    public ExportJobService(
+        ContactExportService contactExportService,
+        ContactRepository contactRepository,
+        @Qualifier("exportJobExecutor") TaskExecutor exportJobExecutor
+    ) {
+        this.contactExportService = contactExportService;
+        this.contactRepository = contactRepository;
+        this.exportJobExecutor = exportJobExecutor;
+    }
+
+    @PostConstruct
+    void createSpoolDirectory() throws IOException {
+        spoolDir = Files.createDirectories(Paths.get(spoolDirectory));
+        log.info("Export artifacts are spooled to {}", spoolDir);
+    }
+
+    public ExportJobResponse createJob(Long userId, String format) {
+        ExportFormat exportFormat = parseFormat(format);
+        log.info(
+            "Queueing {} export job for user id: {}",
+            exportFormat,
+            userId
+        );
+
+        ExportJob job = new ExportJob(
+            UUID.randomUUID().toString(),
+            userId,
+            exportFormat
+        );
+        jobs.put(job.id, job);
+
+        try {
+            exportJobExecutor.execute(() -> runJob(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new TooManyRequestsException(
+                "Too many exports in progress, please try again later"
+            );
+        }
+
+        return toResponse(job);
+    }
+
+    public ExportJobResponse getJob(Long userId, String jobId) {
+        return toResponse(findJob(userId, jobId));
+    }
+
+    public Resource getJobFile(Long userId, String jobId) {
+        ExportJob job = findJob(userId, jobId);
+        if (job.status != ExportJobStatus.COMPLETED) {
+            throw new BadRequestException(
+                "Export job is " + job.status + ", the file is not ready yet"
+            );
+        }
+        return new FileSystemResource(job.file);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${contacts.export.jobs.cleanup-interval:PT10M}"
+    )
+    public void purgeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs
+            .values()
+            .removeIf(job -> {
+                boolean expired =
+                    job.completedAt != null && job.completedAt.isBefore(cutoff);
+                if (expired) {
+                    deleteQuietly(job.file);
+                    log.debug("Purged export job {}", job.id);
+                }
+                return expired;
+            });
+    }
+
+    private void runJob(ExportJob job) {
+        job.status = ExportJobStatus.RUNNING;
+        job.totalContacts = contactRepository.countByUserId(job.userId);
+
+        Path partial = spoolDir.resolve(job.id + ".part");
+        Path target = spoolDir.resolve(
+            job.id + "." + job.format.getFileExtension()
+        );
+
+        try {
+            try (
+                OutputStream out = new BufferedOutputStream(
+                    Files.newOutputStream(partial)
+                )
+            ) {
+                switch (job.format) {
+                    case JSON -> contactExportService.streamContactsAsJson(
+                        job.userId,
+                        out,
+                        job.exportedContacts::set
+                    );
+                    case CSV -> contactExportService.streamContactsAsCsv(
+                        job.userId,
+                        out,
+                        job.exportedContacts::set
+                    );
+                    case NDJSON -> contactExportService.streamContactsAsNdjson(
+                        job.userId,
+                        out,
+                        job.exportedContacts::set
+                    );
+                    case VCARD -> contactExportService.streamContactsAsVCard(
+                        job.userId,
+                        out,
+                        VCardWriter.VERSION_4,
+                        job.exportedContacts::set
+                    );
+                }
+            }
+            // Only expose complete files under their final name
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+
+            job.file = target;
+            job.status = ExportJobStatus.COMPLETED;
+            log.info(
+                "Export job {} finished with {} contacts",
+                job.id,
+                job.exportedContacts.get()
+            );
+        } catch (Exception e) {
+            log.error("Export job {} failed", job.id, e);
+            deleteQuietly(partial);
+            job.error = "Export failed, please try again";
+            job.status = ExportJobStatus.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+        }
+    }
+
+    private ExportJob findJob(Long userId, String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Export job", "id", jobId);
+        }
+        return job;
+    }
+
+    private ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(
+                "Unsupported export format: " + format
+            );
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private ExportJobResponse toResponse(ExportJob job) {
+        Long fileSize = null;
+        if (job.status == ExportJobStatus.COMPLETED) {
+            try {
+                fileSize = Files.size(job.file);
+            } catch (IOException e) {
+                log.warn("Could not read size of {}", job.file, e);
+            }
+        }
+
+        return ExportJobResponse.builder()
+            .id(job.id)
+            .format(job.format)
+            .status(job.status)
+            .exportedContacts(job.exportedContacts.get())
+            .totalContacts(job.totalContacts)
+            .fileSize(fileSize)
+            .error(job.error)
+            .createdAt(job.createdAt)
+            .completedAt(job.completedAt)
+            .build();
+    }
+
+    private static class ExportJob {
+
+        private final String id;
+        private final Long userId;
+        private final ExportFormat format;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong exportedContacts = new AtomicLong();
+        private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        private volatile long totalContacts;
+        private volatile Path file;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        private ExportJob(String id, Long userId, ExportFormat format) {
+            this.id = id;
+            this.userId = userId;
+            this.format = format;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.susa.circle.service;
+
+import com.susa.circle.exception.TooManyRequestsException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Admission control for imports, so bulk work leaves connections and CPU for
+// the CRUD endpoints. An import needs a slot of its user and a global one,
+// waits up to queue-timeout for them and is otherwise rejected with a 429.
+// Admitted imports are further held to a per-user rate of written rows:
+// imports that commit batch by batch wait for it between transactions, the
+// few that write in one transaction only charge their rows and the user's
+// next import is admitted once they are paid for. A user's entries are
+// dropped once they have no import left and their rows are paid for.
+@Service
+@Slf4j
+public class ImportThrottle {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Semaphore globalSlots;
+    private final Map<Long, UserSlot> userSlots = new ConcurrentHashMap<>();
+    private final Map<Long, RowRate> rowRates = new ConcurrentHashMap<>();
+    private final int maxPerUser;
+    private final int rowsPerSecond;
+    private final Duration queueTimeout;
+    private final Duration retryAfter;
+
+    public ImportThrottle(
+        @Value(
+            "${contacts.import.admission.max-concurrent:4}"
+        ) int maxConcurrent,
+        @Value("${contacts.import.admission.max-per-user:1}") int maxPerUser,
+        @Value(
+            "${contacts.import.admission.rows-per-second:5000}"
+        ) int rowsPerSecond,
+        @Value(
+            "${contacts.import.admission.queue-timeout:PT5S}"
+        ) Duration queueTimeout,
+        @Value(
+            "${contacts.import.admission.retry-after:PT30S}"
+        ) Duration retryAfter
+    ) {
+        // Fair, so queued imports are admitted in arrival order
+        this.globalSlots = new Semaphore(maxConcurrent, true);
+        this.maxPerUser = maxPerUser;
+        this.rowsPerSecond = rowsPerSecond;
+        this.queueTimeout = queueTimeout;
+        this.retryAfter = retryAfter;
+    }
+
+    public Permit admit(Long userId) {
+        long deadline = System.nanoTime() + queueTimeout.toNanos();
+
+        // Rejected rather than put to sleep on a request thread
+        RowRate rowRate = rowRates.get(userId);
+        long owedNanos = rowRate == null ? 0 : rowRate.owedNanos();
+        if (owedNanos > 0) {
+            throw reject(
+                "Your previous imports are over the row rate, " +
+                    "please try again later",
+                userId,
+                Duration.ofSeconds(
+                    TimeUnit.NANOSECONDS.toSeconds(owedNanos) + 1
+                )
+            );
+        }
+
+        UserSlot userSlot = userSlots.compute(userId, (id, slot) -> {
+            slot = slot == null ? new UserSlot(maxPerUser) : slot;
+            slot.holders++;
+            return slot;
+        });
+        try {
+            if (
+                !userSlot.semaphore.tryAcquire(
+                    deadline - System.nanoTime(),
+                    TimeUnit.NANOSECONDS
+                )
+            ) {
+                leave(userId);
+                throw reject(
+                    "You already have " +
+                        maxPerUser +
+                        " import(s) running, please try again later",
+                    userId
+                );
+            }
+            long remaining = deadline - System.nanoTime();
+            if (!globalSlots.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                userSlot.semaphore.release();
+                leave(userId);
+                throw reject(
+                    "Too many imports in progress, please try again later",
+                    userId
+                );
+            }
+        } catch (InterruptedException e) {
+            leave(userId);
+            Thread.currentThread().interrupt();
+            throw reject("Import was interrupted while queued", userId);
+        }
+
+        return new Permit(() -> {
+            globalSlots.release();
+            userSlot.semaphore.release();
+            leave(userId);
+        });
+    }
+
+    // Blocks until the user may write another batch of rows. Unused rate of
+    // up to one second carries over, so small imports are never slowed down.
+    public void acquireRows(Long userId, int rows) {
+        if (rowsPerSecond <= 0 || rows <= 0) {
+            return;
+        }
+
+        long waitNanos = reserve(userId, rows);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TooManyRequestsException(
+                    "Import was interrupted while throttled",
+                    retryAfter
+                );
+            }
+        }
+    }
+
+    // The same charge without waiting, for rows written inside a transaction
+    // that mustn't hold its connection while it sleeps
+    public void chargeRows(Long userId, int rows) {
+        if (rowsPerSecond <= 0 || rows <= 0) {
+            return;
+        }
+        reserve(userId, rows);
+    }
+
+    // A paid-up rate is no different from a new one, so it can go
+    @Scheduled(
+        fixedDelayString = "${contacts.import.admission.cleanup-interval:PT10M}"
+    )
+    public void evictIdleRates() {
+        for (Long userId : rowRates.keySet()) {
+            rowRates.computeIfPresent(userId, (id, rate) ->
+                rate.isIdle() ? null : rate
+            );
+        }
+    }
+
+    // Under the map's lock for the user, so eviction can't drop the rate
+    // between looking it up and reserving on it
+    private long reserve(Long userId, int rows) {
+        long[] waitNanos = new long[1];
+        rowRates.compute(userId, (id, rate) -> {
+            rate = rate == null ? new RowRate(rowsPerSecond) : rate;
+            waitNanos[0] = rate.reserve(rows);
+            return rate;
+        });
+        return waitNanos[0];
+    }
+
+    // The slot goes once no import holds or waits for it
+    private void leave(Long userId) {
+        userSlots.computeIfPresent(userId, (id, slot) ->
+            --slot.holders == 0 ? null : slot
+        );
+    }
+
+    private TooManyRequestsException reject(String message, Long userId) {
+        return reject(message, userId, retryAfter);
+    }
+
+    private TooManyRequestsException reject(
+        String message,
+        Long userId,
+        Duration retryAfter
+    ) {
+        log.info("Rejected import for user id: {}: {}", userId, message);
+        return new TooManyRequestsException(message, retryAfter);
+    }
+
+    // Released once, however often close is called
+    public static final class Permit implements AutoCloseable {
+
+        private final Runnable release;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+
+    // Holders are counted under the map's lock for the user
+    private static final class UserSlot {
+
+        private final Semaphore semaphore;
+        private int holders;
+
+        private UserSlot(int maxPerUser) {
+            // Fair, so queued imports are admitted in arrival order
+            this.semaphore = new Semaphore(maxPerUser, true);
+        }
+    }
+
+    // Pay-later rate: a batch goes ahead as soon as the one before it has
+    // been paid for, and its own rows delay the next one
+    private static final class RowRate {
+
+        private final double nanosPerRow;
+        private long nextFreeNanos = System.nanoTime();
+
+        private RowRate(int rowsPerSecond) {
+            this.nanosPerRow = (double) NANOS_PER_SECOND / rowsPerSecond;
+        }
+
+        private synchronized long reserve(int rows) {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeNanos, now - NANOS_PER_SECOND);
+            nextFreeNanos = start + (long) (rows * nanosPerRow);
+            return start - now;
+        }
+
+        // How long until rows already charged are paid for
+        private synchronized long owedNanos() {
+            return Math.max(0, nextFreeNanos - System.nanoTime());
+        }
+
+        // Fully paid and past the carried-over second
+        private synchronized boolean isIdle() {
+            return nextFreeNanos <= System.nanoTime() - NANOS_PER_SECOND;
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.response.ImportSummaryResponse;
+import com.susa.circle.dto.response.ImportUploadResponse;
+import com.susa.circle.enums.ImportUploadStatus;
+import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.exception.ResourceNotFoundException;
+import com.susa.circle.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+// Resumable CSV uploads: chunks are PUT by index into a per-session
+// directory and imported in order while the rest are still arriving. Each
+// import run covers the chunks received in sequence so far and ends there,
+// so no worker waits on a client; the next chunk starts another run. Runs
+// commit per batch and checkpoint the byte offset after the last committed
+// record, so the next one, or committing a failed session again, reads on
+// from there instead of parsing the upload from its first chunk.
+@Service
+@Slf4j
+public class ImportUploadService {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ContactImportService contactImportService;
+    private final TaskExecutor importUploadExecutor;
+    private final ImportThrottle importThrottle;
+    private final Map<String, UploadSession> sessions =
+        new ConcurrentHashMap<>();
+
+    @Value(
+        "${contacts.import.uploads.spool-dir:${java.io.tmpdir}/circle-uploads}"
+    )
+    private String spoolDirectory;
+
+    @Value("${contacts.import.uploads.max-chunk-size:64MB}")
+    private DataSize maxChunkSize;
+
+    @Value("${contacts.import.uploads.idle-timeout:PT1H}")
+    private Duration idleTimeout;
+
+    private Path spoolDir;
+
+    public ImportUploadService(
+        ContactImportService contactImportService,
+        @Qualifier("importUploadExecutor") TaskExecutor importUploadExecutor,
+        ImportThrottle importThrottle
+    ) {
+        this.contactImportService = contactImportService;
+        this.importUploadExecutor = importUploadExecutor;
+        this.importThrottle = importThrottle;
+    }
+
+    @PostConstruct
+    void createSpoolDirectory() throws IOException {
+        spoolDir = Files.createDirectories(Paths.get(spoolDirectory));
+        log.info("Import uploads are spooled to {}", spoolDir);
+    }
+
+    public ImportUploadResponse createSession(Long userId) {
+        UploadSession session = new UploadSession(
+            UUID.randomUUID().toString(),
+            userId
+        );
+        try {
+            session.directory = Files.createDirectory(
+                spoolDir.resolve(session.id)
+            );
+        } catch (IOException e) {
+            log.error("Could not create upload directory", e);
+            throw new BadRequestException("Could not start the upload");
+        }
+        sessions.put(session.id, session);
+        log.info(
+            "Created import upload {} for user id: {}",
+            session.id,
+            userId
+        );
+        return toResponse(session);
+    }
+
+    // Polling also starts a run that admission turned down earlier
+    public ImportUploadResponse getSession(Long userId, String sessionId) {
+        UploadSession session = findSession(userId, sessionId);
+        startImportIfAdmitted(session);
+        return toResponse(session);
+    }
+
+    public ImportUploadResponse putChunk(
+        Long userId,
+        String sessionId,
+        int index,
+        InputStream body
+    ) {
+        UploadSession session = findSession(userId, sessionId);
+        if (index < 0) {
+            throw new BadRequestException("Chunk index must not be negative");
+        }
+        if (session.totalChunks != null && index >= session.totalChunks) {
+            throw new BadRequestException(
+                "Upload was committed with " + session.totalChunks + " chunks"
+            );
+        }
+        if (session.isFinished()) {
+            throw new BadRequestException("Upload is " + session.status);
+        }
+
+        // Retried chunks are already on disk and may be being read
+        if (!session.receivedChunks.contains(index)) {
+            writeChunk(session, index, body);
+            synchronized (session) {
+                session.receivedChunks.add(index);
+            }
+            log.debug("Received chunk {} of upload {}", index, session.id);
+        }
+        session.touch();
+        startImportIfAdmitted(session);
+        return toResponse(session);
+    }
+
+    public ImportUploadResponse commit(
+        Long userId,
+        String sessionId,
+        int totalChunks
+    ) {
+        UploadSession session = findSession(userId, sessionId);
+        if (totalChunks < 1) {
+            throw new BadRequestException("An upload needs at least one chunk");
+        }
+        if (
+            session.totalChunks != null && session.totalChunks != totalChunks
+        ) {
+            throw new BadRequestException(
+                "Upload was committed with " + session.totalChunks + " chunks"
+            );
+        }
+        if (session.receivedChunks.stream().anyMatch(i -> i >= totalChunks)) {
+            throw new BadRequestException(
+                "Chunks beyond index " + (totalChunks - 1) + " were uploaded"
+            );
+        }
+
+        synchronized (session) {
+            session.totalChunks = totalChunks;
+            if (session.status == ImportUploadStatus.FAILED) {
+                log.info(
+                    "Resuming import upload {} after row {}",
+                    session.id,
+                    session.checkpoint.rows()
+                );
+                session.error = null;
+                session.completedAt = null;
+                session.status = ImportUploadStatus.COMMITTED;
+            } else if (session.status == ImportUploadStatus.RECEIVING) {
+                session.status = ImportUploadStatus.COMMITTED;
+            }
+        }
+        session.touch();
+        startImport(session);
+        return toResponse(session);
+    }
+
+    public void abort(Long userId, String sessionId) {
+        UploadSession session = findSession(userId, sessionId);
+        log.info("Aborting import upload {}", session.id);
+        discard(session);
+    }
+
+    @Scheduled(
+        fixedDelayString = "${contacts.import.uploads.cleanup-interval:PT10M}"
+    )
+    public void purgeIdleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(idleTimeout);
+        sessions
+            .values()
+            .stream()
+            .filter(session -> session.lastActivityAt.isBefore(cutoff))
+            .forEach(session -> {
+                log.debug("Purging idle import upload {}", session.id);
+                discard(session);
+            });
+    }
+
+    // A stored chunk isn't rejected because its import can't start yet: the
+    // admission permit is only taken for a run, so the chunk waits on disk
+    // for the next chunk, the commit or a status poll to start one
+    private void startImportIfAdmitted(UploadSession session) {
+        try {
+            startImport(session);
+        } catch (TooManyRequestsException e) {
+            log.debug(
+                "Import of upload {} deferred: {}",
+                session.id,
+                e.getMessage()
+            );
+        }
+    }
+
+    // Starts a run unless one is going, which picks up the new chunks
+    // itself, or there is nothing new to import. The permit is held for
+    // the run only, never while the session waits for chunks.
+    private void startImport(UploadSession session) {
+        synchronized (session) {
+            if (session.running || nextRun(session) == null) {
+                return;
+            }
+            session.running = true;
+        }
+
+        ImportThrottle.Permit permit;
+        try {
+            permit = importThrottle.admit(session.userId);
+        } catch (TooManyRequestsException e) {
+            notRunning(session);
+            throw e;
+        }
+
+        try {
+            importUploadExecutor.execute(() -> {
+                try (permit) {
+                    runImports(session);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            permit.close();
+            notRunning(session);
+            throw new TooManyRequestsException(
+                "Too many imports in progress, please try again later"
+            );
+        }
+    }
+
+    private void notRunning(UploadSession session) {
+        synchronized (session) {
+            session.running = false;
+        }
+    }
+
+    // Runs until the chunks in sequence are all imported. The check for new
+    // ones and clearing running happen under the lock putChunk adds chunks
+    // with, so a chunk either extends this loop or starts a new one.
+    private void runImports(UploadSession session) {
+        while (true) {
+            Run run;
+            synchronized (session) {
+                run = nextRun(session);
+                if (run == null) {
+                    session.running = false;
+                    return;
+                }
+            }
+            if (!runImport(session, run)) {
+                notRunning(session);
+                return;
+            }
+        }
+    }
+
+    // The chunks received in sequence from the first, if there are more of
+    // them than the last run covered or they make up the committed upload
+    private Run nextRun(UploadSession session) {
+        if (
+            session.status != ImportUploadStatus.RECEIVING &&
+            session.status != ImportUploadStatus.COMMITTED
+        ) {
+            return null;
+        }
+        int chunks = 0;
+        while (session.receivedChunks.contains(chunks)) {
+            chunks++;
+        }
+        boolean complete =
+            session.status == ImportUploadStatus.COMMITTED &&
+            chunks >= session.totalChunks;
+        return complete || chunks > session.importedChunks
+            ? new Run(chunks, complete)
+            : null;
+    }
+
+    private boolean runImport(UploadSession session, Run run) {
+        CsvCheckpoint from = session.checkpoint;
+        try (
+            InputStream in = new BufferedInputStream(
+                new ChunkInputStream(session, from.bytes(), run.chunks()),
+                BUFFER_SIZE
+            )
+        ) {
+            ImportSummaryResponse summary =
+                contactImportService.importContactsFromCsvCheckpointed(
+                    session.userId,
+                    in,
+                    from,
+                    run.complete(),
+                    id -> session.importedContacts.incrementAndGet(),
+                    checkpoint -> {
+                        session.checkpoint = checkpoint;
+                        session.touch();
+                    }
+                );
+            session.importedChunks = run.chunks();
+            if (!run.complete()) {
+                return true;
+            }
+
+            // Under the lock discard takes, so an abort isn't overwritten
+            synchronized (session) {
+                if (session.status == ImportUploadStatus.ABORTED) {
+                    return false;
+                }
+                session.status = ImportUploadStatus.COMPLETED;
+                session.completedAt = LocalDateTime.now();
+            }
+            deleteChunks(session);
+            log.info(
+                "Import upload {} finished, {} contacts imported in the " +
+                    "last run",
+                session.id,
+                summary.getImported()
+            );
+            return true;
+        } catch (Exception e) {
+            synchronized (session) {
+                if (session.status == ImportUploadStatus.ABORTED) {
+                    return false;
+                }
+                session.error =
+                    "Import failed after row " +
+                    session.checkpoint.rows() +
+                    ", commit again to resume";
+                session.completedAt = LocalDateTime.now();
+                session.status = ImportUploadStatus.FAILED;
+            }
+            log.error("Import upload {} failed", session.id, e);
+            return false;
+        }
+    }
+
+    private void writeChunk(UploadSession session, int index, InputStream in) {
+        Path target = chunkFile(session, index);
+        Path partial = session.directory.resolve(
+            index + "." + UUID.randomUUID() + ".part"
+        );
+        try {
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxChunkSize.toBytes()) {
+                        throw new BadRequestException(
+                            "Chunks must not exceed " + maxChunkSize
+                        );
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            // The importer only ever sees complete chunks
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error(
+                "Could not store chunk {} of upload {}",
+                index,
+                session.id,
+                e
+            );
+            throw new BadRequestException("Failed to store chunk " + index);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.id);
+        synchronized (session) {
+            if (!session.isFinished()) {
+                session.status = ImportUploadStatus.ABORTED;
+            }
+        }
+        deleteChunks(session);
+        deleteQuietly(session.directory);
+    }
+
+    private void deleteChunks(UploadSession session) {
+        try (Stream<Path> files = Files.list(session.directory)) {
+            files.forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not list upload directory {}", session.directory);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete upload file {}", file, e);
+        }
+    }
+
+    private Path chunkFile(UploadSession session, int index) {
+        return session.directory.resolve(index + ".chunk");
+    }
+
+    private UploadSession findSession(Long userId, String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null || !session.userId.equals(userId)) {
+            throw new ResourceNotFoundException(
+                "Import upload",
+                "id",
+                sessionId
+            );
+        }
+        return session;
+    }
+
+    private ImportUploadResponse toResponse(UploadSession session) {
+        int bound = session.totalChunks != null
+            ? session.totalChunks
+            : session.receivedChunks
+                  .stream()
+                  .max(Comparator.naturalOrder())
+                  .map(max -> max + 1)
+                  .orElse(0);
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < bound; i++) {
+            if (!session.receivedChunks.contains(i)) {
+                missing.add(i);
+            }
+        }
+
+        return ImportUploadResponse.builder()
+            .id(session.id)
+            .status(session.status)
+            .totalChunks(session.totalChunks)
+            .receivedChunks(session.receivedChunks.size())
+            .missingChunks(missing)
+            .persistedRows(session.checkpoint.rows())
+            .importedContacts(session.importedContacts.get())
+            .error(session.error)
+            .createdAt(session.createdAt)
+            .completedAt(session.completedAt)
+            .build();
+    }
+
+    // Concatenates the first chunks of the session in index order, starting
+    // at a byte offset into that concatenation
+    private class ChunkInputStream extends InputStream {
+
+        private final UploadSession session;
+        private final int chunks;
+        private long skip;
+        private int nextChunk;
+        private InputStream current;
+
+        private ChunkInputStream(UploadSession session, long skip, int chunks) {
+            this.session = session;
+            this.skip = skip;
+            this.chunks = chunks;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+            throws IOException {
+            while (true) {
+                if (current == null && !openNextChunk()) {
+                    return -1;
+                }
+                int read = current.read(buffer, offset, length);
+                if (read != -1) {
+                    return read;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        private boolean openNextChunk() throws IOException {
+            if (session.status == ImportUploadStatus.ABORTED) {
+                throw new IOException("Upload was aborted");
+            }
+            // Chunks before the offset aren't opened at all
+            while (
+                nextChunk < chunks &&
+                skip >= Files.size(chunkFile(session, nextChunk))
+            ) {
+                skip -= Files.size(chunkFile(session, nextChunk++));
+            }
+            if (nextChunk >= chunks) {
+                return false;
+            }
+            current = Files.newInputStream(chunkFile(session, nextChunk++));
+            current.skipNBytes(skip);
+            skip = 0;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+
+    private record Run(int chunks, boolean complete) {}
+
+    private static class UploadSession {
+
+        private final String id;
+        private final Long userId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final Set<Integer> receivedChunks =
+            ConcurrentHashMap.newKeySet();
+        private final AtomicLong importedContacts = new AtomicLong();
+        private volatile Path directory;
+        private volatile Integer totalChunks;
+        private volatile ImportUploadStatus status =
+            ImportUploadStatus.RECEIVING;
+        private volatile String error;
+        private volatile LocalDateTime lastActivityAt = createdAt;
+        private volatile LocalDateTime completedAt;
+        // Guarded by the session's lock
+        private boolean running;
+        private volatile int importedChunks;
+        private volatile CsvCheckpoint checkpoint = CsvCheckpoint.START;
+
+        private UploadSession(String id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        private void touch() {
+            lastActivityAt = LocalDateTime.now();
+        }
+
+        private boolean isFinished() {
+            return (
+                status == ImportUploadStatus.COMPLETED ||
+                status == ImportUploadStatus.ABORTED
+            );
+        }
+    }
+}
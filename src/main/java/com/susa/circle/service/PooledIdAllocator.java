@@ -0,0 +1,57 @@
+package com.susa.circle.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Hands out ids the same way Hibernate's pooled optimizer does: every
+// nextval reserves the block (value - blockSize, value]. Blocks are
+// fetched a few at a time so we don't pay a round trip per contact.
+// Used by the JDBC import paths that bypass Hibernate.
+class PooledIdAllocator {
+
+    // Must match allocationSize of the contact sequences
+    private static final int BLOCK_SIZE = 50;
+    private static final int BLOCKS_PER_FETCH = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequence;
+    private final Deque<Long> blocks = new ArrayDeque<>();
+    private long next = 1;
+    private long hi = 0;
+
+    PooledIdAllocator(JdbcTemplate jdbcTemplate, String sequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequence = sequence;
+    }
+
+    long nextId() {
+        if (next > hi) {
+            hi = nextBlock();
+            next = hi - BLOCK_SIZE + 1;
+        }
+        return next++;
+    }
+
+    private long nextBlock() {
+        while (true) {
+            if (blocks.isEmpty()) {
+                blocks.addAll(
+                    jdbcTemplate.queryForList(
+                        "SELECT nextval('" +
+                            sequence +
+                            "') FROM generate_series(1, ?)",
+                        Long.class,
+                        BLOCKS_PER_FETCH
+                    )
+                );
+            }
+            long value = blocks.poll();
+            // A fresh sequence returns its start value first, whose
+            // block would reach below 1; Hibernate skips it as well
+            if (value >= BLOCK_SIZE) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.susa.circle.service;
+
+import com.susa.circle.exception.BadRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+// Contact search on PostgreSQL. Matches the term as a substring of the name
+// and title, of any email and, for terms that look like a phone number, of
+// any phone's digits. Each of those is a pg_trgm GIN index (created by
+// ContactSearchIndexInitializer), so the matches come from index scans
+// instead of a LIKE over every contact of the user.
+@Service
+public class PostgresContactSearch {
+
+    // The indexed expressions. The queries must use them verbatim, or
+    // PostgreSQL can't match them to the indexes.
+    public static final String CONTACT_TEXT =
+        "lower(first_name || ' ' || last_name || ' ' || coalesce(title, ''))";
+    public static final String EMAIL_TEXT = "lower(email)";
+    public static final String PHONE_DIGITS =
+        "regexp_replace(phone_number, '[^0-9]', '', 'g')";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "id",
+        "c.id",
+        "firstName",
+        "c.first_name",
+        "lastName",
+        "c.last_name",
+        "title",
+        "c.title",
+        "createdAt",
+        "c.created_at",
+        "updatedAt",
+        "c.updated_at"
+    );
+
+    private final EntityManager entityManager;
+
+    public PostgresContactSearch(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Page<Long> searchIds(Long userId, String search, Pageable pageable) {
+        Matches matches = new Matches(userId, search);
+        List<Long> ids = ids(
+            matches
+                .query(
+                    "SELECT c.id FROM contacts c WHERE " +
+                        matches.condition +
+                        orderBy(pageable.getSort()) +
+                        " LIMIT :limit OFFSET :offset"
+                )
+                .setParameter("limit", pageable.getPageSize())
+                .setParameter("offset", pageable.getOffset())
+        );
+        return PageableExecutionUtils.getPage(ids, pageable, () ->
+            ((Number) matches
+                    .query(
+                        "SELECT COUNT(*) FROM contacts c WHERE " +
+                            matches.condition
+                    )
+                    .getSingleResult()).longValue()
+        );
+    }
+
+    public Slice<Long> searchIdSlice(
+        Long userId,
+        String search,
+        Pageable pageable
+    ) {
+        Matches matches = new Matches(userId, search);
+        List<Long> ids = ids(
+            matches
+                .query(
+                    "SELECT c.id FROM contacts c WHERE " +
+                        matches.condition +
+                        orderBy(pageable.getSort()) +
+                        " LIMIT :limit OFFSET :offset"
+                )
+                .setParameter("limit", pageable.getPageSize() + 1)
+                .setParameter("offset", pageable.getOffset())
+        );
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(
+            hasNext ? ids.subList(0, pageable.getPageSize()) : ids,
+            pageable,
+            hasNext
+        );
+    }
+
+    // Same order and row value as ContactRepository.findIdsByUserIdAfterName
+    public List<Long> searchIdsAfterName(
+        Long userId,
+        String search,
+        String lastName,
+        String firstName,
+        Long afterId,
+        int limit
+    ) {
+        Matches matches = new Matches(userId, search);
+        return ids(
+            matches
+                .query(
+                    "SELECT c.id FROM contacts c WHERE " +
+                        matches.condition +
+                        " AND (c.user_id, c.last_name, c.first_name, c.id) > " +
+                        "(:userId, :lastName, :firstName, :afterId) " +
+                        "ORDER BY c.last_name, c.first_name, c.id LIMIT :limit"
+                )
+                .setParameter("lastName", lastName)
+                .setParameter("firstName", firstName)
+                .setParameter("afterId", afterId)
+                .setParameter("limit", limit)
+        );
+    }
+
+    private static List<Long> ids(Query query) {
+        return ((List<?>) query.getResultList()).stream()
+            .map(id -> ((Number) id).longValue())
+            .toList();
+    }
+
+    // Sorts by the page's properties, then by id so that pages don't
+    // overlap when the sort key has ties
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BadRequestException(
+                    "Cannot sort contacts by " + order.getProperty()
+                );
+            }
+            orderBy.add(column + (order.isDescending() ? " DESC" : " ASC"));
+        }
+        orderBy.add("c.id");
+        return orderBy.toString();
+    }
+
+    // LIKE pattern matching the text anywhere, with its wildcards escaped
+    private static String containing(String text) {
+        return (
+            "%" +
+            text
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") +
+            "%"
+        );
+    }
+
+    // Start of a UNION branch over one of the child tables, scoped to the
+    // user so other users' matching emails or phones stay out of the IN list
+    private static String ownedBy(String table) {
+        return (
+            "SELECT t.contact_id FROM " +
+            table +
+            " t JOIN contacts o ON o.id = t.contact_id " +
+            "WHERE o.user_id = :userId AND "
+        );
+    }
+
+    // The user's contacts that match the term, as a WHERE condition on
+    // contacts c and the parameters it binds
+    private final class Matches {
+
+        private final String condition;
+        private final Map<String, Object> parameters = new HashMap<>();
+
+        private Matches(Long userId, String search) {
+            String term = search.trim().toLowerCase(Locale.ROOT);
+            parameters.put("userId", userId);
+            parameters.put("pattern", containing(term));
+
+            StringBuilder ids = new StringBuilder()
+                .append("SELECT id FROM contacts WHERE user_id = :userId AND ")
+                .append(CONTACT_TEXT)
+                .append(" LIKE :pattern UNION ")
+                .append(ownedBy("contact_emails"))
+                .append(EMAIL_TEXT)
+                .append(" LIKE :pattern");
+
+            // Only terms made of phone characters search the phones, so
+            // "jane2" doesn't match every number with a 2 in it
+            String digits = term.replaceAll("[^0-9]", "");
+            if (!digits.isEmpty() && term.matches("[0-9+()\\-.\\s]+")) {
+                ids
+                    .append(" UNION ")
+                    .append(ownedBy("contact_phones"))
+                    .append(PHONE_DIGITS)
+                    .append(" LIKE :digits");
+                parameters.put("digits", containing(digits));
+            }
+
+            this.condition = "c.user_id = :userId AND c.id IN (" + ids + ")";
+        }
+
+        private Query query(String sql) {
+            Query query = entityManager.createNativeQuery(sql);
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+    }
+}
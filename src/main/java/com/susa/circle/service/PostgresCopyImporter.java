@@ -0,0 +1,224 @@
+package com.susa.circle.service;
+
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongConsumer;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Bulk path for very large imports: stream the rows through COPY, a batch
+// at a time, into a temporary staging table, then move them into the real
+// tables with three set-based INSERTs. Runs inside the caller's transaction.
+@Service
+@Slf4j
+public class PostgresCopyImporter {
+
+    private static final String CREATE_STAGING_TABLE = """
+        CREATE TEMP TABLE contact_import_staging (
+            kind CHAR(1) NOT NULL,
+            id BIGINT NOT NULL,
+            contact_id BIGINT NOT NULL,
+            first_name VARCHAR(100),
+            last_name VARCHAR(100),
+            title VARCHAR(100),
+            value VARCHAR(255),
+            value_type VARCHAR(20)
+        ) ON COMMIT DROP
+        """;
+
+    // Contacts per COPY, the ids of one contact sequence fetch
+    static final int BATCH_SIZE = 1_000;
+
+    private static final String COPY_STAGING_ROWS =
+        "COPY contact_import_staging (kind, id, contact_id, first_name, " +
+        "last_name, title, value, value_type) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MOVE_CONTACTS = """
+        INSERT INTO contacts (id, first_name, last_name, title, user_id,
+            created_at, updated_at)
+        SELECT id, first_name, last_name, title, ?,
+            LOCALTIMESTAMP, LOCALTIMESTAMP
+        FROM contact_import_staging WHERE kind = 'C'
+        """;
+
+    private static final String MOVE_EMAILS = """
+        INSERT INTO contact_emails (id, email, type, contact_id)
+        SELECT id, value, value_type, contact_id
+        FROM contact_import_staging WHERE kind = 'E'
+        """;
+
+    private static final String MOVE_PHONES = """
+        INSERT INTO contact_phones (id, phone_number, type, contact_id)
+        SELECT id, value, value_type, contact_id
+        FROM contact_import_staging WHERE kind = 'P'
+        """;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresCopyImporter(
+        DataSource dataSource,
+        JdbcTemplate jdbcTemplate
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long copyContacts(
+        Long userId,
+        Iterator<Contact> contacts,
+        LongConsumer createdIds
+    ) throws IOException, SQLException {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS contact_import_staging");
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+
+        // The transaction's connection, so COPY and the INSERTs commit together
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        long count;
+        try {
+            count = stageContacts(
+                connection.unwrap(PGConnection.class),
+                contacts,
+                createdIds
+            );
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        jdbcTemplate.update(MOVE_CONTACTS, userId);
+        int emails = jdbcTemplate.update(MOVE_EMAILS);
+        int phones = jdbcTemplate.update(MOVE_PHONES);
+        log.debug(
+            "Copied {} contacts, {} emails and {} phones",
+            count,
+            emails,
+            phones
+        );
+        return count;
+    }
+
+    private long stageContacts(
+        PGConnection connection,
+        Iterator<Contact> contacts,
+        LongConsumer createdIds
+    ) throws IOException, SQLException {
+        PooledIdAllocator contactIds = new PooledIdAllocator(
+            jdbcTemplate,
+            "contacts_seq"
+        );
+        PooledIdAllocator emailIds = new PooledIdAllocator(
+            jdbcTemplate,
+            "contact_emails_seq"
+        );
+        PooledIdAllocator phoneIds = new PooledIdAllocator(
+            jdbcTemplate,
+            "contact_phones_seq"
+        );
+
+        long count = 0;
+        List<Contact> batch = new ArrayList<>(BATCH_SIZE);
+        while (contacts.hasNext()) {
+            batch.clear();
+            while (batch.size() < BATCH_SIZE && contacts.hasNext()) {
+                batch.add(contacts.next());
+            }
+
+            // The allocators query the same connection, which is busy for
+            // as long as a COPY is open, so the batch's ids come first
+            long[] batchIds = new long[batch.size()];
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Contact contact = batch.get(i);
+                long contactId = contactIds.nextId();
+                batchIds[i] = contactId;
+
+                rows.add(
+                    new Object[] {
+                        "C",
+                        contactId,
+                        contactId,
+                        contact.getFirstName(),
+                        contact.getLastName(),
+                        contact.getTitle(),
+                        null,
+                        null,
+                    }
+                );
+                for (ContactEmail email : contact.getEmails()) {
+                    rows.add(
+                        new Object[] {
+                            "E",
+                            emailIds.nextId(),
+                            contactId,
+                            null,
+                            null,
+                            null,
+                            email.getEmail(),
+                            email.getType().name(),
+                        }
+                    );
+                }
+                for (ContactPhone phone : contact.getPhones()) {
+                    rows.add(
+                        new Object[] {
+                            "P",
+                            phoneIds.nextId(),
+                            contactId,
+                            null,
+                            null,
+                            null,
+                            phone.getPhoneNumber(),
+                            phone.getType().name(),
+                        }
+                    );
+                }
+            }
+
+            copyRows(connection, rows);
+            for (long contactId : batchIds) {
+                createdIds.accept(contactId);
+            }
+            count += batch.size();
+        }
+        return count;
+    }
+
+    private void copyRows(PGConnection connection, List<Object[]> rows)
+        throws IOException, SQLException {
+        try (
+            CSVPrinter printer = new CSVPrinter(
+                new BufferedWriter(
+                    new OutputStreamWriter(
+                        new PGCopyOutputStream(connection, COPY_STAGING_ROWS),
+                        StandardCharsets.UTF_8
+                    )
+                ),
+                CSVFormat.POSTGRESQL_CSV
+            )
+        ) {
+            for (Object[] row : rows) {
+                printer.printRecord(row);
+            }
+        }
+    }
+}
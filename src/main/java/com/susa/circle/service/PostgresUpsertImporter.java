@@ -0,0 +1,550 @@
+package com.susa.circle.service;
+
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.dto.response.ImportSummaryResponse;
+import com.susa.circle.mapper.ContactKeys;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Upsert path for repeated imports (e.g. nightly CRM syncs). Each batch is
+// one INSERT ... ON CONFLICT on (user_id, natural_key): new contacts are
+// inserted, changed ones updated in place and unchanged ones (same content
+// hash) are not written at all. Runs inside the caller's transaction.
+@Service
+@Slf4j
+public class PostgresUpsertImporter {
+
+    // A batch of the contacts that have never been through an upsert, with
+    // their emails and phones, for backfillNaturalKeys
+    private static final String UNKEYED_CONTACTS =
+        "SELECT id, first_name, last_name FROM contacts " +
+        "WHERE user_id = ? AND natural_key IS NULL AND id > ? " +
+        "ORDER BY id LIMIT ?";
+
+    private static final String EMAILS_OF =
+        "SELECT contact_id, email FROM contact_emails " +
+        "WHERE contact_id = ANY(?)";
+
+    private static final String PHONES_OF =
+        "SELECT contact_id, phone_number FROM contact_phones " +
+        "WHERE contact_id = ANY(?)";
+
+    private static final String TAKEN_KEYS =
+        "SELECT natural_key FROM contacts " +
+        "WHERE user_id = ? AND natural_key = ANY(?)";
+
+    // The numbered keys of some names, given as LIKE patterns
+    private static final String NUMBERED_NAME_KEYS =
+        "SELECT natural_key FROM contacts " +
+        "WHERE user_id = ? AND natural_key LIKE ANY(?)";
+
+    private static final String SET_NATURAL_KEYS = """
+        UPDATE contacts SET natural_key = t.natural_key
+        FROM unnest(?::bigint[], ?::varchar[]) AS t(id, natural_key)
+        WHERE contacts.id = t.id
+        """;
+
+    // xmax is 0 only for freshly inserted rows. Rows skipped by the WHERE
+    // clause are not returned.
+    private static final String UPSERT_CONTACTS = """
+        INSERT INTO contacts (id, user_id, first_name, last_name, title,
+            natural_key, content_hash, created_at, updated_at)
+        SELECT t.id, ?, t.first_name, t.last_name, t.title, t.natural_key,
+            t.content_hash, LOCALTIMESTAMP, LOCALTIMESTAMP
+        FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::varchar[],
+            ?::varchar[], ?::varchar[])
+            AS t(id, first_name, last_name, title, natural_key, content_hash)
+        ON CONFLICT (user_id, natural_key) DO UPDATE SET
+            first_name = EXCLUDED.first_name,
+            last_name = EXCLUDED.last_name,
+            title = EXCLUDED.title,
+            content_hash = EXCLUDED.content_hash,
+            updated_at = EXCLUDED.updated_at
+        WHERE contacts.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+        RETURNING id, natural_key, (xmax = 0) AS inserted
+        """;
+
+    private static final String DELETE_EMAILS =
+        "DELETE FROM contact_emails WHERE contact_id = ANY(?)";
+
+    private static final String DELETE_PHONES =
+        "DELETE FROM contact_phones WHERE contact_id = ANY(?)";
+
+    private static final String INSERT_EMAILS = """
+        INSERT INTO contact_emails (id, email, type, contact_id)
+        SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::varchar[],
+            ?::bigint[])
+        """;
+
+    private static final String INSERT_PHONES = """
+        INSERT INTO contact_phones (id, phone_number, type, contact_id)
+        SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::varchar[],
+            ?::bigint[])
+        """;
+
+    // Escaped with LIKE's default escape character, the backslash
+    private static final Pattern LIKE_SPECIALS = Pattern.compile("[\\\\%_]");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${contacts.import.batch-size:500}")
+    private int batchSize;
+
+    public PostgresUpsertImporter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Counts inserted contacts as imported and changed ones as updated.
+    // Unchanged contacts and duplicate keys within the input are skipped.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ImportSummaryResponse upsertContacts(
+        Long userId,
+        Iterator<ContactRequest> requests
+    ) {
+        int backfilled = backfillNaturalKeys(userId);
+        if (backfilled > 0) {
+            log.debug("Backfilled natural keys of {} contacts", backfilled);
+        }
+
+        BatchUpserter upserter = new BatchUpserter(userId);
+        while (requests.hasNext()) {
+            upserter.add(requests.next());
+        }
+        upserter.flush();
+        return upserter.summary;
+    }
+
+    // Gives the user's contacts that have never been through an upsert the
+    // natural key ContactKeys computes for imported ones, a batch at a time
+    // so that memory stays bounded however many there are. The keys are
+    // computed here rather than in SQL so that both sides normalize emails
+    // and names the same way. If several contacts share an email or phone
+    // key only the oldest one gets it; same-name contacts are numbered on
+    // from the ones already keyed.
+    private int backfillNaturalKeys(Long userId) {
+        int backfilled = 0;
+        long afterId = 0;
+        while (true) {
+            List<Unkeyed> contacts = jdbcTemplate.query(
+                UNKEYED_CONTACTS,
+                (rs, rowNum) ->
+                    new Unkeyed(
+                        rs.getLong("id"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")
+                    ),
+                userId,
+                afterId,
+                batchSize
+            );
+            if (contacts.isEmpty()) {
+                return backfilled;
+            }
+            afterId = contacts.get(contacts.size() - 1).id();
+
+            Long[] contactIds = contacts
+                .stream()
+                .map(Unkeyed::id)
+                .toArray(Long[]::new);
+            Map<Long, List<String>> emails = children(EMAILS_OF, contactIds);
+            Map<Long, List<String>> phones = children(PHONES_OF, contactIds);
+            Map<Long, String> candidates = new LinkedHashMap<>();
+            for (Unkeyed contact : contacts) {
+                String key = ContactKeys.naturalKey(
+                    contact.firstName(),
+                    contact.lastName(),
+                    emails.getOrDefault(contact.id(), List.of()),
+                    phones.getOrDefault(contact.id(), List.of())
+                );
+                if (key != null) {
+                    candidates.put(contact.id(), key);
+                }
+            }
+
+            Set<String> nameKeys = new HashSet<>();
+            List<String> otherKeys = new ArrayList<>();
+            for (String key : candidates.values()) {
+                if (ContactKeys.isNameKey(key)) {
+                    nameKeys.add(key);
+                } else {
+                    otherKeys.add(key);
+                }
+            }
+            Set<String> taken = takenKeys(userId, otherKeys);
+            Map<String, Integer> ordinals = lastOrdinals(userId, nameKeys);
+
+            List<Long> ids = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            candidates.forEach((id, key) -> {
+                if (ContactKeys.isNameKey(key)) {
+                    key = ContactKeys.numbered(
+                        key,
+                        ordinals.merge(key, 1, Integer::sum)
+                    );
+                } else if (!taken.add(key)) {
+                    return;
+                }
+                ids.add(id);
+                keys.add(key);
+            });
+            if (!ids.isEmpty()) {
+                setNaturalKeys(ids, keys);
+                backfilled += ids.size();
+            }
+        }
+    }
+
+    private Set<String> takenKeys(Long userId, List<String> keys) {
+        Set<String> taken = new HashSet<>();
+        if (keys.isEmpty()) {
+            return taken;
+        }
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement ps = connection.prepareStatement(TAKEN_KEYS);
+                ps.setLong(1, userId);
+                ps.setArray(
+                    2,
+                    array(connection, "varchar", keys.toArray(String[]::new))
+                );
+                return ps;
+            },
+            rs -> {
+                taken.add(rs.getString(1));
+            }
+        );
+        return taken;
+    }
+
+    // The highest ordinal already given to each of the name keys
+    private Map<String, Integer> lastOrdinals(
+        Long userId,
+        Set<String> nameKeys
+    ) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        if (nameKeys.isEmpty()) {
+            return ordinals;
+        }
+        String[] patterns = nameKeys
+            .stream()
+            .map(key -> LIKE_SPECIALS.matcher(key).replaceAll("\\\\$0") + "#%")
+            .toArray(String[]::new);
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                    NUMBERED_NAME_KEYS
+                );
+                ps.setLong(1, userId);
+                ps.setArray(2, array(connection, "varchar", patterns));
+                return ps;
+            },
+            rs -> {
+                String key = rs.getString(1);
+                String nameKey = ContactKeys.unnumbered(key);
+                if (nameKeys.contains(nameKey)) {
+                    ordinals.merge(
+                        nameKey,
+                        ContactKeys.ordinal(key),
+                        Math::max
+                    );
+                }
+            }
+        );
+        return ordinals;
+    }
+
+    private void setNaturalKeys(List<Long> ids, List<String> keys) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                SET_NATURAL_KEYS
+            );
+            ps.setArray(
+                1,
+                array(connection, "bigint", ids.toArray(Long[]::new))
+            );
+            ps.setArray(
+                2,
+                array(connection, "varchar", keys.toArray(String[]::new))
+            );
+            return ps;
+        });
+    }
+
+    // Contact id to the values of the second column
+    private Map<Long, List<String>> children(String sql, Long[] contactIds) {
+        Map<Long, List<String>> values = new HashMap<>();
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setArray(1, array(connection, "bigint", contactIds));
+                return ps;
+            },
+            rs -> {
+                values
+                    .computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                    .add(rs.getString(2));
+            }
+        );
+        return values;
+    }
+
+    private static Array array(
+        Connection connection,
+        String type,
+        Object[] values
+    ) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private record Unkeyed(long id, String firstName, String lastName) {}
+
+    private static final class Row {
+
+        private final ContactRequest request;
+        private final String naturalKey;
+        private long id;
+
+        private Row(ContactRequest request, String naturalKey, long id) {
+            this.request = request;
+            this.naturalKey = naturalKey;
+            this.id = id;
+        }
+    }
+
+    private class BatchUpserter {
+
+        private final Long userId;
+        private final PooledIdAllocator contactIds;
+        private final PooledIdAllocator emailIds;
+        private final PooledIdAllocator phoneIds;
+        // ON CONFLICT can't touch the same row twice in one statement, so
+        // a repeated key replaces the earlier row (the last one wins)
+        private final Map<String, ContactRequest> keyed =
+            new LinkedHashMap<>();
+        private final List<ContactRequest> unkeyed = new ArrayList<>();
+        // How many contacts of each name without an email or phone the
+        // import has had, to number their keys
+        private final Map<String, Integer> names = new HashMap<>();
+        private final ImportSummaryResponse summary =
+            ImportSummaryResponse.builder().updated(0L).build();
+
+        private BatchUpserter(Long userId) {
+            this.userId = userId;
+            this.contactIds = new PooledIdAllocator(
+                jdbcTemplate,
+                "contacts_seq"
+            );
+            this.emailIds = new PooledIdAllocator(
+                jdbcTemplate,
+                "contact_emails_seq"
+            );
+            this.phoneIds = new PooledIdAllocator(
+                jdbcTemplate,
+                "contact_phones_seq"
+            );
+        }
+
+        private void add(ContactRequest request) {
+            String naturalKey = ContactKeys.naturalKey(request);
+            if (naturalKey != null && ContactKeys.isNameKey(naturalKey)) {
+                naturalKey = ContactKeys.numbered(
+                    naturalKey,
+                    names.merge(naturalKey, 1, Integer::sum)
+                );
+            }
+            if (naturalKey == null) {
+                unkeyed.add(request);
+            } else if (keyed.put(naturalKey, request) != null) {
+                summary.setSkipped(summary.getSkipped() + 1);
+            }
+            if (keyed.size() + unkeyed.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (keyed.isEmpty() && unkeyed.isEmpty()) {
+                return;
+            }
+
+            int size = keyed.size() + unkeyed.size();
+            Long[] ids = new Long[size];
+            String[] firstNames = new String[size];
+            String[] lastNames = new String[size];
+            String[] titles = new String[size];
+            String[] naturalKeys = new String[size];
+            String[] contentHashes = new String[size];
+            Map<Long, Row> byId = new HashMap<>(size * 2);
+            Map<String, Row> byKey = new HashMap<>(keyed.size() * 2);
+
+            int i = 0;
+            List<Map.Entry<String, ContactRequest>> entries = new ArrayList<>(
+                keyed.entrySet()
+            );
+            for (ContactRequest request : unkeyed) {
+                entries.add(new SimpleEntry<>(null, request));
+            }
+            for (Map.Entry<String, ContactRequest> entry : entries) {
+                ContactRequest request = entry.getValue();
+                // Only used if the row ends up inserted
+                Row row = new Row(
+                    request,
+                    entry.getKey(),
+                    contactIds.nextId()
+                );
+                byId.put(row.id, row);
+                if (row.naturalKey != null) {
+                    byKey.put(row.naturalKey, row);
+                }
+
+                ids[i] = row.id;
+                firstNames[i] = request.getFirstName();
+                lastNames[i] = request.getLastName();
+                titles[i] = request.getTitle();
+                naturalKeys[i] = row.naturalKey;
+                contentHashes[i] = ContactKeys.contentHash(request);
+                i++;
+            }
+
+            List<Row> written = new ArrayList<>(size);
+            List<Long> updatedIds = new ArrayList<>();
+            jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                        UPSERT_CONTACTS
+                    );
+                    ps.setLong(1, userId);
+                    ps.setArray(2, array(connection, "bigint", ids));
+                    ps.setArray(3, array(connection, "varchar", firstNames));
+                    ps.setArray(4, array(connection, "varchar", lastNames));
+                    ps.setArray(5, array(connection, "varchar", titles));
+                    ps.setArray(6, array(connection, "varchar", naturalKeys));
+                    ps.setArray(
+                        7,
+                        array(connection, "varchar", contentHashes)
+                    );
+                    return ps;
+                },
+                rs -> {
+                    if (rs.getBoolean("inserted")) {
+                        written.add(byId.get(rs.getLong("id")));
+                        return;
+                    }
+                    // Matched an existing contact, which keeps its own id
+                    Row row = byKey.get(rs.getString("natural_key"));
+                    row.id = rs.getLong("id");
+                    updatedIds.add(row.id);
+                    written.add(row);
+                }
+            );
+
+            if (!updatedIds.isEmpty()) {
+                Long[] replaced = updatedIds.toArray(Long[]::new);
+                deleteChildren(DELETE_EMAILS, replaced);
+                deleteChildren(DELETE_PHONES, replaced);
+            }
+            insertChildren(written);
+
+            summary.setImported(
+                summary.getImported() + written.size() - updatedIds.size()
+            );
+            summary.setUpdated(summary.getUpdated() + updatedIds.size());
+            summary.setSkipped(summary.getSkipped() + size - written.size());
+            keyed.clear();
+            unkeyed.clear();
+        }
+
+        private void deleteChildren(String sql, Long[] contactIds) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setArray(1, array(connection, "bigint", contactIds));
+                return ps;
+            });
+        }
+
+        private void insertChildren(List<Row> rows) {
+            List<Object[]> emails = new ArrayList<>();
+            List<Object[]> phones = new ArrayList<>();
+            for (Row row : rows) {
+                ContactRequest request = row.request;
+                if (request.getEmails() != null) {
+                    for (EmailRequest email : request.getEmails()) {
+                        emails.add(
+                            new Object[] {
+                                emailIds.nextId(),
+                                email.getEmail(),
+                                name(email.getType()),
+                                row.id,
+                            }
+                        );
+                    }
+                }
+                if (request.getPhones() != null) {
+                    for (PhoneRequest phone : request.getPhones()) {
+                        phones.add(
+                            new Object[] {
+                                phoneIds.nextId(),
+                                phone.getPhoneNumber(),
+                                name(phone.getType()),
+                                row.id,
+                            }
+                        );
+                    }
+                }
+            }
+            insertChildren(INSERT_EMAILS, emails);
+            insertChildren(INSERT_PHONES, phones);
+        }
+
+        // One statement per batch: the rows go in as four column arrays
+        private void insertChildren(String sql, List<Object[]> rows) {
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            Long[] ids = new Long[rows.size()];
+            String[] values = new String[rows.size()];
+            String[] types = new String[rows.size()];
+            Long[] contactIds = new Long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                ids[i] = (Long) row[0];
+                values[i] = (String) row[1];
+                types[i] = (String) row[2];
+                contactIds[i] = (Long) row[3];
+            }
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setArray(1, array(connection, "bigint", ids));
+                ps.setArray(2, array(connection, "varchar", values));
+                ps.setArray(3, array(connection, "varchar", types));
+                ps.setArray(4, array(connection, "bigint", contactIds));
+                return ps;
+            });
+        }
+    }
+}
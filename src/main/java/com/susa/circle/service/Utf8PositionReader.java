@@ -0,0 +1,83 @@
+package com.susa.circle.service;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+// Maps the character positions the CSV parser reports back to byte offsets
+// in the UTF-8 input, so a checkpoint can be resumed by seeking. Only the
+// characters after the last lookup are kept: a batch of records plus the
+// parser's read-ahead.
+class Utf8PositionReader extends FilterReader {
+
+    private final StringBuilder pending = new StringBuilder();
+    private long pendingPosition;
+    private long pendingBytes;
+
+    Utf8PositionReader(Reader in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c != -1) {
+            pending.append((char) c);
+        }
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length)
+        throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            pending.append(buffer, offset, read);
+        }
+        return read;
+    }
+
+    // Skipped characters must be counted too
+    @Override
+    public long skip(long n) throws IOException {
+        char[] buffer = new char[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(
+                buffer,
+                0,
+                (int) Math.min(n - skipped, buffer.length)
+            );
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    // Positions must not go backwards between lookups
+    long bytesAt(long position) {
+        int end = Math.toIntExact(position - pendingPosition);
+        for (int i = 0; i < end; i++) {
+            char c = pending.charAt(i);
+            if (c < 0x80) {
+                pendingBytes += 1;
+            } else if (c < 0x800) {
+                pendingBytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                pendingBytes += 4;
+                i++;
+            } else {
+                pendingBytes += 3;
+            }
+        }
+        pending.delete(0, end);
+        pendingPosition = position;
+        return pendingBytes;
+    }
+
+    long bytesRead() {
+        return bytesAt(pendingPosition + pending.length());
+    }
+}
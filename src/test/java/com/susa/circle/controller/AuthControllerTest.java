@@ -16,6 +16,7 @@ import com.susa.circle.dto.response.UserResponse;
 import com.susa.circle.security.CustomUserDetails;
 import com.susa.circle.security.JwtAuthenticationFilter;
 import com.susa.circle.service.AuthService;
+import com.susa.circle.service.ImportThrottle;
 import java.time.LocalDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,9 @@ class AuthControllerTest {
     @MockitoBean
     private AuthService authService;
 
+    @MockitoBean
+    private ImportThrottle importThrottle;
+
     private RegisterRequest registerRequest;
     private LoginRequest loginRequest;
     private AuthResponse authResponse;
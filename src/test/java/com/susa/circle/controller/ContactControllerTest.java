@@ -1,27 +1,38 @@
 package com.susa.circle.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.susa.circle.dto.request.ContactRequest;
 import com.susa.circle.dto.request.EmailRequest;
 import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.dto.response.ContactCursorPage;
 import com.susa.circle.dto.response.ContactResponse;
 import com.susa.circle.dto.response.EmailResponse;
+import com.susa.circle.dto.response.ImportSummaryResponse;
 import com.susa.circle.dto.response.PhoneResponse;
 import com.susa.circle.enums.EmailType;
 import com.susa.circle.enums.PhoneType;
 import com.susa.circle.security.CustomUserDetails;
 import com.susa.circle.security.JwtAuthenticationFilter;
+import com.susa.circle.service.ContactCursor;
+import com.susa.circle.service.ContactExportCache;
 import com.susa.circle.service.ContactExportService;
 import com.susa.circle.service.ContactImportService;
 import com.susa.circle.service.ContactService;
+import com.susa.circle.service.ImportThrottle;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +42,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -58,9 +70,16 @@ class ContactControllerTest {
     @MockitoBean
     private ContactExportService contactExportService;
 
+    @MockitoBean
+    private ContactExportCache contactExportCache;
+
     @MockitoBean
     private ContactImportService contactImportService;
 
+    // Needed by WebConfig's import admission interceptor
+    @MockitoBean
+    private ImportThrottle importThrottle;
+
     private ContactRequest contactRequest;
     private ContactResponse contactResponse;
     private CustomUserDetails userDetails;
@@ -177,6 +196,47 @@ class ContactControllerTest {
     // Removed testSearchContacts_Success due to Spring Security test framework
     // not properly extracting CustomUserDetails ID in @WebMvcTest context
 
+    @Test
+    @WithMockUser
+    void testGetContactsAfter_FirstPage() throws Exception {
+        when(
+            contactService.getContactsAfter(
+                eq(1L),
+                any(ContactCursor.class),
+                eq(10)
+            )
+        ).thenReturn(
+            ContactCursorPage.builder()
+                .content(List.of(contactResponse))
+                .size(10)
+                .build()
+        );
+
+        mockMvc
+            .perform(
+                get("/api/contacts").with(user(userDetails)).param("cursor", "")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.content[0].firstName").value("Jane"))
+            .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+
+        verify(contactService, never()).getAllContacts(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetContactsAfter_RejectsInvalidCursor() throws Exception {
+        mockMvc
+            .perform(
+                get("/api/contacts")
+                    .with(user(userDetails))
+                    .param("cursor", "not a cursor")
+            )
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(contactService);
+    }
+
     @Test
     @WithMockUser
     void testGetContactById_Success() throws Exception {
@@ -264,4 +324,93 @@ class ContactControllerTest {
 
         verify(contactService).deleteContact(eq(1L), eq(1L));
     }
+
+    @Test
+    @WithMockUser
+    void testGetContactById_NegotiatesCbor() throws Exception {
+        when(contactService.getContactById(eq(1L), eq(1L))).thenReturn(
+            contactResponse
+        );
+
+        byte[] body = mockMvc
+            .perform(
+                get("/api/contacts/1")
+                    .with(user(userDetails))
+                    .accept(MediaType.APPLICATION_CBOR)
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+        JsonNode response = new CBORMapper().readTree(body);
+        assertEquals("Jane", response.path("data").path("firstName").asText());
+    }
+
+    @Test
+    @WithMockUser
+    void testImportContactsFromCsvBody_StreamsRequestBody() throws Exception {
+        when(
+            contactImportService.importContactsFromCsvStream(
+                eq(1L),
+                any(InputStream.class),
+                any(LongConsumer.class)
+            )
+        ).thenReturn(ImportSummaryResponse.builder().imported(1).build());
+
+        mockMvc
+            .perform(
+                post("/api/contacts/import/csv/stream")
+                    .with(user(userDetails))
+                    .contentType("text/csv")
+                    .content(
+                        "First Name,Last Name,Title,Emails,Phones\n" +
+                            "Jane,Smith,,,\n"
+                    )
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.data.imported").value(1));
+
+        verify(contactImportService, never()).importContactsFromCsvPipelined(
+            any(),
+            any(InputStream.class),
+            any(LongConsumer.class)
+        );
+    }
+
+    @Test
+    @WithMockUser
+    void testExportContactsAsCsv_RejectsUnknownField() throws Exception {
+        mockMvc
+            .perform(
+                get("/api/contacts/export/csv")
+                    .with(user(userDetails))
+                    .param("fields", "firstName,password")
+            )
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(contactExportService);
+    }
+
+    @Test
+    @WithMockUser
+    void testExportContactsAsJson_NotModifiedForCurrentETag()
+        throws Exception {
+        when(contactExportCache.lookup(1L, "json")).thenReturn(
+            new ContactExportCache.Lookup(1L, "json", 3, "\"abc-3\"")
+        );
+
+        mockMvc
+            .perform(
+                get("/api/contacts/export/json")
+                    .with(user(userDetails))
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"abc-3\"")
+            )
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"abc-3\""));
+
+        verify(contactExportCache, never()).cached(any(), any());
+        verifyNoInteractions(contactExportService);
+    }
 }
@@ -0,0 +1,101 @@
+package com.susa.circle.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ContactCellCodecTest {
+
+    @Test
+    void testParseEmails() {
+        List<EmailRequest> emails = ContactCellCodec.parseEmails(
+            " john@example.com (WORK);jane@example.com ( personal ) ; "
+        );
+
+        assertEquals(
+            List.of(
+                new EmailRequest("john@example.com", EmailType.WORK),
+                new EmailRequest("jane@example.com", EmailType.PERSONAL)
+            ),
+            emails
+        );
+    }
+
+    @Test
+    void testParseEmails_UnknownTypeFallsBackToPersonal() {
+        List<EmailRequest> emails = ContactCellCodec.parseEmails(
+            "john@example.com (SCHOOL)"
+        );
+
+        assertEquals(1, emails.size());
+        assertEquals(EmailType.PERSONAL, emails.get(0).getType());
+    }
+
+    @Test
+    void testParsePhones_SkipsEntriesWithoutType() {
+        List<PhoneRequest> phones = ContactCellCodec.parsePhones(
+            "+15551234567; +15557654321 (home); (WORK); +1555 () "
+        );
+
+        assertEquals(
+            List.of(new PhoneRequest("+15557654321", PhoneType.HOME)),
+            phones
+        );
+    }
+
+    @Test
+    void testParsePhones_UsesLastParenthesisedGroupAsType() {
+        List<PhoneRequest> phones = ContactCellCodec.parsePhones(
+            "+1 (555) 123-4567 (MOBILE) (WORK)"
+        );
+
+        assertEquals(
+            List.of(
+                new PhoneRequest("+1 (555) 123-4567 (MOBILE)", PhoneType.WORK)
+            ),
+            phones
+        );
+    }
+
+    @Test
+    void testFormatRoundTrip() {
+        List<ContactEmail> emails = List.of(
+            ContactEmail.builder()
+                .email("john@example.com")
+                .type(EmailType.WORK)
+                .build(),
+            ContactEmail.builder()
+                .email("john@home.example.com")
+                .type(EmailType.OTHER)
+                .build()
+        );
+        List<ContactPhone> phones = List.of(
+            ContactPhone.builder()
+                .phoneNumber("+15551234567")
+                .type(PhoneType.HOME)
+                .build()
+        );
+
+        String emailCell = ContactCellCodec.formatEmails(emails);
+        String phoneCell = ContactCellCodec.formatPhones(phones);
+
+        assertEquals(
+            "john@example.com (WORK); john@home.example.com (OTHER)",
+            emailCell
+        );
+        assertEquals("+15551234567 (HOME)", phoneCell);
+        assertEquals(2, ContactCellCodec.parseEmails(emailCell).size());
+        assertEquals(
+            PhoneType.HOME,
+            ContactCellCodec.parsePhones(phoneCell).get(0).getType()
+        );
+        assertEquals("", ContactCellCodec.formatEmails(List.of()));
+    }
+}
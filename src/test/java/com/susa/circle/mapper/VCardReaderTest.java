@@ -0,0 +1,124 @@
+package com.susa.circle.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.susa.circle.dto.request.ContactRequest;
+import com.susa.circle.dto.request.EmailRequest;
+import com.susa.circle.dto.request.PhoneRequest;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class VCardReaderTest {
+
+    @Test
+    void testNext_UnfoldsLinesAndMapsTypes() throws IOException {
+        String vcf =
+            "BEGIN:VCARD\r\n" +
+            "VERSION:4.0\r\n" +
+            "FN:John Ronald Smith\r\n" +
+            "TITLE:CEO\\, Acme\r\n" +
+            "item1.EMAIL;TYPE=\"work,internet\":john.smith@exa\r\n" +
+            " mple.com\r\n" +
+            "TEL;VALUE=uri;TYPE=cell,voice:tel:+1-555-123-4567\r\n" +
+            "TEL;TYPE=fax:+15557654321\r\n" +
+            "END:VCARD\r\n" +
+            "BEGIN:VCARD\n" +
+            "VERSION:3.0\n" +
+            "N:Doe;Jane;;;\n" +
+            "EMAIL:jane@example.com\n" +
+            "TEL;TYPE=HOME,VOICE:+15550000000\n" +
+            "END:VCARD\n";
+
+        try (VCardReader reader = new VCardReader(new StringReader(vcf))) {
+            ContactRequest john = reader.next();
+            ContactRequest jane = reader.next();
+
+            assertEquals("John", john.getFirstName());
+            assertEquals("Ronald Smith", john.getLastName());
+            assertEquals("CEO, Acme", john.getTitle());
+            assertEquals(
+                List.of(
+                    new EmailRequest("john.smith@example.com", EmailType.WORK)
+                ),
+                john.getEmails()
+            );
+            assertEquals(
+                List.of(
+                    new PhoneRequest("+1-555-123-4567", PhoneType.PERSONAL),
+                    new PhoneRequest("+15557654321", PhoneType.OTHER)
+                ),
+                john.getPhones()
+            );
+
+            assertEquals("Jane", jane.getFirstName());
+            assertEquals("Doe", jane.getLastName());
+            assertEquals(EmailType.PERSONAL, jane.getEmails().get(0).getType());
+            assertEquals(PhoneType.HOME, jane.getPhones().get(0).getType());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testNext_RejectsUnterminatedCard() {
+        VCardReader reader = new VCardReader(
+            new StringReader("BEGIN:VCARD\r\nFN:John Smith\r\n")
+        );
+
+        assertThrows(IOException.class, reader::next);
+    }
+
+    @Test
+    void testWriteRoundTrip() throws IOException {
+        Contact contact = Contact.builder()
+            .firstName("José")
+            .lastName("Smith; Jr")
+            .title("Head of ".repeat(10) + "Everything")
+            .build();
+        contact
+            .getEmails()
+            .add(
+                ContactEmail.builder()
+                    .email("jose@example.com")
+                    .type(EmailType.OTHER)
+                    .build()
+            );
+        contact
+            .getPhones()
+            .add(
+                ContactPhone.builder()
+                    .phoneNumber("+1 555 123 4567")
+                    .type(PhoneType.PERSONAL)
+                    .build()
+            );
+
+        for (String version : List.of("3.0", "4.0")) {
+            StringWriter out = new StringWriter();
+            new VCardWriter(out, version).write(contact);
+
+            for (String line : out.toString().split("\r\n")) {
+                int octets = line.getBytes(StandardCharsets.UTF_8).length;
+                assertTrue(octets <= 75, line);
+            }
+            ContactRequest read = new VCardReader(
+                new StringReader(out.toString())
+            ).next();
+            assertEquals("José", read.getFirstName());
+            assertEquals("Smith; Jr", read.getLastName());
+            assertEquals(contact.getTitle(), read.getTitle());
+            assertEquals(EmailType.OTHER, read.getEmails().get(0).getType());
+            assertEquals(
+                new PhoneRequest("+1 555 123 4567", PhoneType.PERSONAL),
+                read.getPhones().get(0)
+            );
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.susa.circle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.entity.User;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(
+    properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "contacts.export.chunk-size=50",
+    }
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ContactExportService.class)
+class ContactExportServiceQueryCountTest {
+
+    private static final int CONTACTS = 120;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ContactExportService contactExportService;
+
+    private User testUser;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testUser = entityManager.persist(
+            User.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("export@example.com")
+                .password("password")
+                .active(true)
+                .contacts(new ArrayList<>())
+                .build()
+        );
+
+        for (int i = 0; i < CONTACTS; i++) {
+            Contact contact = Contact.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .user(testUser)
+                .build();
+            contact
+                .getEmails()
+                .add(
+                    ContactEmail.builder()
+                        .email("user" + i + "@example.com")
+                        .type(EmailType.WORK)
+                        .contact(contact)
+                        .build()
+                );
+            contact
+                .getPhones()
+                .add(
+                    ContactPhone.builder()
+                        .phoneNumber("+1555" + (1000000 + i))
+                        .type(PhoneType.HOME)
+                        .contact(contact)
+                        .build()
+                );
+            entityManager.persist(contact);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+    }
+
+    @Test
+    void testStreamContactsAsJson_LoadsChildrenPerChunk() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statistics.clear();
+
+        long exported = contactExportService.streamContactsAsJson(
+            testUser.getId(),
+            out
+        );
+
+        // 3 chunks of contacts, emails and phones, then the empty chunk
+        assertEquals(3 * 3 + 1, statistics.getPrepareStatementCount());
+        assertEquals(CONTACTS, exported);
+        JsonNode contacts = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals(CONTACTS, contacts.size());
+        assertEquals(1, contacts.get(0).get("emails").size());
+        assertEquals(1, contacts.get(0).get("phones").size());
+    }
+}
@@ -0,0 +1,587 @@
+package com.susa.circle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.susa.circle.config.DatabasePlatform;
+import com.susa.circle.config.ImportConfig;
+import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.dto.response.ImportSummaryResponse;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.User;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.exception.BadRequestException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+@DataJpaTest(
+    properties = "spring.jpa.properties.hibernate.generate_statistics=true"
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(
+    {
+        ContactImportService.class,
+        ContactImportPipeline.class,
+        ImportConfig.class,
+        PostgresCopyImporter.class,
+        PostgresUpsertImporter.class,
+        DatabasePlatform.class,
+        ImportThrottle.class,
+        LocalValidatorFactoryBean.class,
+    }
+)
+class ContactImportServiceBatchingTest {
+
+    private static final int CONTACTS = 1_000;
+    // hibernate.jdbc.batch_size and the sequences' allocationSize
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ContactImportService contactImportService;
+
+    private User testUser;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+            .firstName("John")
+            .lastName("Doe")
+            .email("batching@example.com")
+            .password("password")
+            .active(true)
+            .contacts(new ArrayList<>())
+            .build();
+        testUser = entityManager.persist(testUser);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testImportContactsFromCsv_BatchesInserts() {
+        // The JPA path, as on databases without COPY. The context, and so
+        // the service, is shared with the other tests.
+        ReflectionTestUtils.setField(
+            contactImportService,
+            "postgresCopyEnabled",
+            false
+        );
+        try {
+            contactImportService.importContactsFromCsv(
+                testUser.getId(),
+                csvFile(CONTACTS)
+            );
+            entityManager.flush();
+        } finally {
+            ReflectionTestUtils.setField(
+                contactImportService,
+                "postgresCopyEnabled",
+                true
+            );
+        }
+
+        assertEquals(3L * CONTACTS, statistics.getEntityInsertCount());
+        assertStatementCountIsBatched();
+    }
+
+    @Test
+    void testImportContactsFromCsv_CopiesOnPostgres() {
+        List<ContactResponse> imported =
+            contactImportService.importContactsFromCsv(
+                testUser.getId(),
+                csvFile(CONTACTS)
+            );
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(CONTACTS, imported.size());
+        ContactResponse last = imported.get(CONTACTS - 1);
+        assertNotNull(last.getId());
+        assertEquals("First" + (CONTACTS - 1), last.getFirstName());
+        assertEquals(1, last.getEmails().size());
+        assertEquals(1, last.getPhones().size());
+    }
+
+    @Test
+    void testImportContactsFromCsv_CopiesAcrossIdFetches() {
+        // More contacts than one COPY batch, so ids are fetched between
+        // COPYs on the same connection
+        int contacts = 2 * CONTACTS + 1;
+
+        List<ContactResponse> imported =
+            contactImportService.importContactsFromCsv(
+                testUser.getId(),
+                csvFile(contacts)
+            );
+
+        assertEquals(contacts, imported.size());
+        assertEquals(
+            contacts,
+            imported.stream().map(ContactResponse::getId).distinct().count()
+        );
+        ContactResponse last = imported.get(contacts - 1);
+        assertEquals("First" + (contacts - 1), last.getFirstName());
+        assertEquals(1, last.getEmails().size());
+        assertEquals(1, last.getPhones().size());
+    }
+
+    @Test
+    void testImportContactsFromJson_BatchesInserts() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < CONTACTS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json
+                .append("{\"firstName\":\"First")
+                .append(i)
+                .append("\",\"lastName\":\"Last")
+                .append(i)
+                .append("\",\"emails\":[{\"email\":\"user")
+                .append(i)
+                .append("@example.com\",\"type\":\"WORK\"}]")
+                .append(",\"phones\":[{\"phoneNumber\":\"+1555")
+                .append(1000000 + i)
+                .append("\",\"type\":\"HOME\"}]}");
+        }
+        json.append(']');
+        MockMultipartFile file = new MockMultipartFile(
+            "file",
+            "contacts.json",
+            "application/json",
+            json.toString().getBytes(StandardCharsets.UTF_8)
+        );
+
+        contactImportService.importContactsFromJson(testUser.getId(), file);
+        entityManager.flush();
+
+        assertEquals(3L * CONTACTS, statistics.getEntityInsertCount());
+        assertStatementCountIsBatched();
+    }
+
+    @Test
+    void testImportContactsFromCsvPipelined_ReportsInvalidRowsInOrder() {
+        StringBuilder csv = new StringBuilder(
+            "First Name,Last Name,Title,Emails,Phones\n"
+        );
+        for (int i = 0; i < CONTACTS; i++) {
+            // every hundredth row is missing its first name
+            csv
+                .append(i % 100 == 0 ? "" : "First" + i)
+                .append(",Last")
+                .append(i)
+                .append(",,user")
+                .append(i)
+                .append("@example.com (WORK),\n");
+        }
+
+        ImportSummaryResponse summary =
+            contactImportService.importContactsFromCsvPipelined(
+                testUser.getId(),
+                new ByteArrayInputStream(
+                    csv.toString().getBytes(StandardCharsets.UTF_8)
+                )
+            );
+        entityManager.flush();
+
+        assertEquals(CONTACTS - 10, summary.getImported());
+        assertEquals(10, summary.getFailed());
+        assertEquals(10, summary.getErrors().size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * 100 + 1, summary.getErrors().get(i).getRow());
+        }
+        assertEquals(
+            2L * (CONTACTS - 10),
+            statistics.getEntityInsertCount()
+        );
+    }
+
+    @Test
+    void testImportContactsFromCsvPipelined_RejectsMalformedCsv() {
+        // The quote is never closed
+        String csv =
+            "First Name,Last Name,Title,Emails,Phones\n" +
+            "Jane,\"Doe,,,\n";
+
+        assertThrows(BadRequestException.class, () ->
+            contactImportService.importContactsFromCsvPipelined(
+                testUser.getId(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))
+            )
+        );
+    }
+
+    @Test
+    void testImportContactsFromJsonPipelined_ReportsInvalidElements() {
+        String json =
+            "[{\"firstName\":\"Jane\",\"lastName\":\"Doe\"}," +
+            "null," +
+            "{\"lastName\":\"Smith\"}," +
+            "{\"firstName\":\"John\",\"lastName\":\"Smith\"}]";
+
+        ImportSummaryResponse summary =
+            contactImportService.importContactsFromJsonPipelined(
+                testUser.getId(),
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))
+            );
+
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(1, summary.getFailed());
+        assertEquals(3, summary.getErrors().get(0).getRow());
+        assertTrue(summary.getFirstId() < summary.getLastId());
+    }
+
+    @Test
+    void testImportContactsFromVCardStream_ReportsInvalidCards() {
+        String vcf =
+            card("N:Doe;Jane;;;") +
+            card("TITLE:Nameless") +
+            card("N:;Ann;;;") +
+            card("N:Smith;John;;;\r\nTEL:+1555123456789012345678") +
+            card("N:Roe;Rick;;;");
+
+        ImportSummaryResponse summary =
+            contactImportService.importContactsFromVCardStream(
+                testUser.getId(),
+                new ByteArrayInputStream(vcf.getBytes(StandardCharsets.UTF_8))
+            );
+
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(2, summary.getFailed());
+        assertEquals(3, summary.getErrors().get(0).getRow());
+        assertEquals(4, summary.getErrors().get(1).getRow());
+        assertTrue(summary.getFirstId() < summary.getLastId());
+    }
+
+    @Test
+    void testImportContactsFromCsvStream_ReportsSkippedRowsAndIdRange() {
+        String csv =
+            "First Name,Last Name,Title,Emails,Phones\n" +
+            "Jane,Doe,,jane@example.com (WORK),\n" +
+            ",,,,\n" +
+            "John,Smith,,,+15551234567 (HOME)\n";
+        List<Long> createdIds = new ArrayList<>();
+
+        ImportSummaryResponse summary =
+            contactImportService.importContactsFromCsvStream(
+                testUser.getId(),
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                createdIds::add
+            );
+
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(2, createdIds.size());
+        assertEquals(createdIds.get(0), summary.getFirstId());
+        assertEquals(createdIds.get(1), summary.getLastId());
+
+        entityManager.clear();
+        assertEquals(
+            2L,
+            entityManager.find(User.class, testUser.getId()).getContactCount()
+        );
+    }
+
+    @Test
+    void testImportContactsFromCsvCheckpointed_ResumesAtCheckpointOffset() {
+        // Multi-byte titles, so byte offsets and character positions differ
+        StringBuilder csv = new StringBuilder(
+            "First Name,Last Name,Title,Emails,Phones\n"
+        );
+        for (int i = 0; i < 120; i++) {
+            csv.append("First").append(i).append(",Last").append(i).append(
+                ",Señor,,\n"
+            );
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        String cut = csv.substring(0, csv.indexOf("First80") + 3);
+        int cutBytes = cut.getBytes(StandardCharsets.UTF_8).length;
+        List<CsvCheckpoint> checkpoints = new ArrayList<>();
+
+        ImportSummaryResponse first =
+            contactImportService.importContactsFromCsvCheckpointed(
+                testUser.getId(),
+                new ByteArrayInputStream(bytes, 0, cutBytes),
+                CsvCheckpoint.START,
+                false,
+                id -> {},
+                checkpoints::add
+            );
+        CsvCheckpoint resumeAt = checkpoints.get(checkpoints.size() - 1);
+
+        assertEquals(80, first.getImported());
+        assertEquals(80, resumeAt.rows());
+        assertEquals(
+            csv
+                .substring(0, csv.indexOf("First80"))
+                .getBytes(StandardCharsets.UTF_8).length,
+            resumeAt.bytes()
+        );
+
+        ImportSummaryResponse rest =
+            contactImportService.importContactsFromCsvCheckpointed(
+                testUser.getId(),
+                new ByteArrayInputStream(
+                    bytes,
+                    (int) resumeAt.bytes(),
+                    bytes.length - (int) resumeAt.bytes()
+                ),
+                resumeAt,
+                true,
+                id -> {},
+                checkpoints::add
+            );
+        CsvCheckpoint last = checkpoints.get(checkpoints.size() - 1);
+
+        assertEquals(40, rest.getImported());
+        assertEquals(120, last.rows());
+        assertEquals(bytes.length, last.bytes());
+        assertEquals(
+            120L,
+            entityManager
+                .getEntityManager()
+                .createQuery(
+                    "select count(c) from Contact c where c.title = 'Señor'",
+                    Long.class
+                )
+                .getSingleResult()
+        );
+    }
+
+    @Test
+    void testImportContactsFromNdjson_ReadsOneContactPerLine() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            ndjson
+                .append("{\"firstName\":\"First")
+                .append(i)
+                .append("\",\"lastName\":\"Last")
+                .append(i)
+                .append("\"}\n");
+            if (i == 60) {
+                ndjson.append("null\n\n");
+            }
+        }
+
+        ImportSummaryResponse summary =
+            contactImportService.importContactsFromNdjson(
+                testUser.getId(),
+                new ByteArrayInputStream(
+                    ndjson.toString().getBytes(StandardCharsets.UTF_8)
+                )
+            );
+        entityManager.flush();
+
+        assertEquals(120, summary.getImported());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(120, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void testValidateContactsFromJson_WritesNothing() {
+        String json =
+            "[{\"firstName\":\"Jane\",\"lastName\":\"Doe\"}," +
+            "null," +
+            "{\"firstName\":\"J\",\"lastName\":\"Doe\"," +
+            "\"emails\":[{\"email\":\"not-an-email\",\"type\":\"WORK\"}]}]";
+
+        ImportSummaryResponse summary =
+            contactImportService.validateContactsFromJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))
+            );
+        entityManager.flush();
+
+        assertEquals(1, summary.getImported());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(1, summary.getFailed());
+        assertEquals(3, summary.getErrors().get(0).getRow());
+        assertTrue(summary.getErrors().get(0).getMessage().contains("email"));
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void testUpsertContactsFromCsv_MatchesExistingContacts() {
+        Contact existing = Contact.builder()
+            .firstName("Jane")
+            .lastName("Doe")
+            .user(entityManager.find(User.class, testUser.getId()))
+            .build();
+        existing
+            .getEmails()
+            .add(
+                ContactEmail.builder()
+                    .email(" Jane@Example.com")
+                    .type(EmailType.WORK)
+                    .contact(existing)
+                    .build()
+            );
+        existing = entityManager.persistFlushFind(existing);
+        entityManager.clear();
+
+        String header = "First Name,Last Name,Title,Emails,Phones\n";
+        String jane = "Jane,Doe,CTO,jane@example.com (WORK),\n";
+        String john = "John,Smith,,,+1 (555) 123-4567 (HOME)\n";
+
+        ImportSummaryResponse first =
+            contactImportService.upsertContactsFromCsv(
+                testUser.getId(),
+                new ByteArrayInputStream(
+                    (header + jane + john + ",,,,\n").getBytes(
+                        StandardCharsets.UTF_8
+                    )
+                )
+            );
+        ImportSummaryResponse second =
+            contactImportService.upsertContactsFromCsv(
+                testUser.getId(),
+                new ByteArrayInputStream(
+                    (header + jane + john.replace("Smith", "Smyth")).getBytes(
+                        StandardCharsets.UTF_8
+                    )
+                )
+            );
+
+        assertEquals(1, first.getImported());
+        assertEquals(1L, first.getUpdated());
+        assertEquals(1, first.getSkipped());
+        assertEquals(0, second.getImported());
+        assertEquals(1L, second.getUpdated());
+        assertEquals(1, second.getSkipped());
+
+        List<Contact> contacts = entityManager
+            .getEntityManager()
+            .createQuery(
+                "SELECT c FROM Contact c WHERE c.user.id = :userId " +
+                    "ORDER BY c.id",
+                Contact.class
+            )
+            .setParameter("userId", testUser.getId())
+            .getResultList();
+        assertEquals(2, contacts.size());
+        assertEquals(existing.getId(), contacts.get(0).getId());
+        assertEquals("CTO", contacts.get(0).getTitle());
+        assertEquals(
+            "jane@example.com",
+            contacts.get(0).getEmails().get(0).getEmail()
+        );
+        assertEquals("Smyth", contacts.get(1).getLastName());
+        assertEquals("p:15551234567", contacts.get(1).getNaturalKey());
+    }
+
+    @Test
+    void testUpsertContactsFromCsv_KeepsSameNameContactsApart() {
+        entityManager.persistAndFlush(
+            Contact.builder()
+                .firstName(" Bob")
+                .lastName("STONE")
+                .user(entityManager.find(User.class, testUser.getId()))
+                .build()
+        );
+        entityManager.clear();
+        byte[] csv = (
+            "First Name,Last Name,Title,Emails,Phones\n" +
+            "Bob,Stone,,,\n" +
+            "Bob,Stone,CEO,,\n"
+        ).getBytes(StandardCharsets.UTF_8);
+
+        ImportSummaryResponse first =
+            contactImportService.upsertContactsFromCsv(
+                testUser.getId(),
+                new ByteArrayInputStream(csv)
+            );
+        ImportSummaryResponse second =
+            contactImportService.upsertContactsFromCsv(
+                testUser.getId(),
+                new ByteArrayInputStream(csv)
+            );
+
+        assertEquals(1, first.getImported());
+        assertEquals(1L, first.getUpdated());
+        assertEquals(0, second.getImported());
+        assertEquals(2, second.getSkipped());
+        List<String> keys = entityManager
+            .getEntityManager()
+            .createQuery(
+                "SELECT c.naturalKey FROM Contact c " +
+                "WHERE c.user.id = :userId ORDER BY c.naturalKey",
+                String.class
+            )
+            .setParameter("userId", testUser.getId())
+            .getResultList();
+        assertEquals(List.of("n:bob|stone#1", "n:bob|stone#2"), keys);
+    }
+
+    private static String card(String properties) {
+        return (
+            "BEGIN:VCARD\r\nVERSION:3.0\r\n" +
+            properties +
+            "\r\nEND:VCARD\r\n"
+        );
+    }
+
+    private static MockMultipartFile csvFile(int contacts) {
+        StringBuilder csv = new StringBuilder(
+            "First Name,Last Name,Title,Emails,Phones\n"
+        );
+        for (int i = 0; i < contacts; i++) {
+            csv
+                .append("First")
+                .append(i)
+                .append(",Last")
+                .append(i)
+                .append(",,user")
+                .append(i)
+                .append("@example.com (WORK),+1555")
+                .append(1000000 + i)
+                .append(" (HOME)\n");
+        }
+        return new MockMultipartFile(
+            "file",
+            "contacts.csv",
+            "text/csv",
+            csv.toString().getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private void assertStatementCountIsBatched() {
+        // One statement per batch for each of contacts, emails and phones,
+        // one nextval per allocated block (plus the initial one) for each
+        // sequence, the user lookup and the contact count update. Unbatched
+        // this would be 3000+.
+        long insertBatches = 3L * (CONTACTS / BATCH_SIZE);
+        long sequenceCalls = 3L * (CONTACTS / BATCH_SIZE + 1);
+        long expectedMax = insertBatches + sequenceCalls + 2;
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(
+            statements <= expectedMax,
+            "Expected at most " + expectedMax + " statements but was " +
+                statements
+        );
+    }
+}
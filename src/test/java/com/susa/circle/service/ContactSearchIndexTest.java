@@ -0,0 +1,238 @@
+package com.susa.circle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.dto.response.EmailResponse;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import com.susa.circle.event.ContactsChangedEvent;
+import com.susa.circle.exception.BadRequestException;
+import com.susa.circle.repository.ContactRepository;
+import com.susa.circle.repository.UserRepository;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+@ExtendWith(MockitoExtension.class)
+class ContactSearchIndexTest {
+
+    private static final Sort BY_FIRST_NAME = Sort.by("firstName");
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ContactSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ContactSearchIndex(
+            contactRepository,
+            userRepository,
+            true,
+            1000,
+            2,
+            "en-US"
+        );
+        lenient()
+            .when(userRepository.findContactCountById(1L))
+            .thenReturn(Optional.of(3L));
+        Contact jane = contact(2L, "Jane", "Doe", "jane@example.com", null);
+        jane.setTitle("Software Engineer");
+        lenient()
+            .when(contactRepository.findAllWithPhonesByUserId(1L))
+            .thenReturn(
+                List.of(
+                    contact(1L, "Jonathan", "Smith", "jon@acme.com", null),
+                    jane,
+                    contact(3L, "Bob", "Stone", null, "+1 (555) 123-4567")
+                )
+            );
+    }
+
+    @Test
+    void testSearch_MatchesWordsWithTypos() {
+        assertEquals(Set.of(1L), ids(search("jonatan")));
+        assertEquals(Set.of(1L), ids(search("smiht")));
+        assertEquals(Set.of(1L), ids(search("jhnathan")));
+        // Short words must match exactly
+        assertEquals(Set.of(), ids(search("jne")));
+    }
+
+    @Test
+    void testSearch_MatchesTitlesEmailsPhonesAndSubstrings() {
+        assertEquals(Set.of(1L), ids(search("acme")));
+        assertEquals(Set.of(2L), ids(search("engineer")));
+        assertEquals(Set.of(3L), ids(search("(555) 123")));
+        assertEquals(Set.of(3L), ids(search("5551234567")));
+        assertEquals(Set.of(), ids(search("5551234568")));
+        assertEquals(Set.of(1L, 2L), ids(search("j")));
+        assertEquals(Set.of(3L), ids(search("b")));
+        assertEquals(Set.of(1L, 2L), ids(search("an")));
+        assertEquals(Set.of(2L), ids(search("jane doe")));
+        assertEquals(Set.of(1L, 2L, 3L), ids(search("")));
+    }
+
+    @Test
+    void testSearch_BuildsOnceAndFollowsSingleContactChanges() {
+        search("jane");
+        index.onContactsChanged(
+            ContactsChangedEvent.saved(
+                1L,
+                ContactResponse.builder()
+                    .id(4L)
+                    .firstName("Janet")
+                    .lastName("Green")
+                    .emails(
+                        List.of(
+                            EmailResponse.builder()
+                                .email("janet@example.com")
+                                .build()
+                        )
+                    )
+                    .build()
+            )
+        );
+        index.onContactsChanged(ContactsChangedEvent.deleted(1L, 2L));
+
+        assertEquals(Set.of(4L), ids(search("jane")));
+        verify(contactRepository, times(1)).findAllWithPhonesByUserId(1L);
+    }
+
+    @Test
+    void testSearch_BulkChangeRebuildsIndex() {
+        search("jane");
+        index.onContactsChanged(new ContactsChangedEvent(1L));
+        search("jane");
+
+        verify(contactRepository, times(2)).findAllWithPhonesByUserId(1L);
+    }
+
+    @Test
+    void testSearch_SortsByCollationAndPagesAfterCursor() {
+        search("");
+        index.onContactsChanged(
+            ContactsChangedEvent.saved(
+                1L,
+                ContactResponse.builder()
+                    .id(4L)
+                    .firstName("Ann")
+                    .lastName("adams")
+                    .build()
+            )
+        );
+
+        // Lower case sorts with upper case, not after it
+        List<ContactResponse> byLastName = index
+            .search(1L, "", Sort.by("lastName"))
+            .orElseThrow();
+        assertEquals(List.of(4L, 2L, 1L, 3L), idList(byLastName));
+
+        ContactCursor afterDoe = ContactCursor.after(byLastName.get(1));
+        assertEquals(
+            List.of(1L),
+            idList(index.searchAfter(1L, "", afterDoe, 1).orElseThrow())
+        );
+        assertEquals(
+            List.of(1L, 3L),
+            idList(index.searchAfter(1L, "", afterDoe, 5).orElseThrow())
+        );
+        assertEquals(
+            List.of(4L, 2L),
+            idList(
+                index.searchAfter(1L, "", ContactCursor.FIRST, 2).orElseThrow()
+            )
+        );
+        // Built once, then every search is answered from memory
+        verify(contactRepository).findAllWithEmailsByUserId(1L);
+        verify(contactRepository).findAllWithPhonesByUserId(1L);
+        verifyNoMoreInteractions(contactRepository);
+    }
+
+    @Test
+    void testSearch_FallsBackForLargeOrUnknownSort() {
+        when(userRepository.findContactCountById(1L)).thenReturn(
+            Optional.of(1001L)
+        );
+
+        assertTrue(index.search(1L, "jane", BY_FIRST_NAME).isEmpty());
+        assertThrows(BadRequestException.class, () ->
+            index.search(1L, "jane", Sort.by("password"))
+        );
+    }
+
+    @Test
+    void testSubstringDistance() {
+        assertEquals(0, distance("nat", "jonathan"));
+        assertEquals(1, distance("jonatan", "jonathan"));
+        assertEquals(1, distance("smiht", "smith"));
+        // Stops at the bound
+        assertEquals(3, distance("xyz", "jonathan"));
+    }
+
+    private List<ContactResponse> search(String query) {
+        return index.search(1L, query, BY_FIRST_NAME).orElseThrow();
+    }
+
+    private static int distance(String query, String word) {
+        return ContactSearchIndex.substringDistance(query, word, 2);
+    }
+
+    private static Set<Long> ids(List<ContactResponse> contacts) {
+        return Set.copyOf(idList(contacts));
+    }
+
+    private static List<Long> idList(List<ContactResponse> contacts) {
+        return contacts.stream().map(ContactResponse::getId).toList();
+    }
+
+    private static Contact contact(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone
+    ) {
+        Contact contact = Contact.builder()
+            .id(id)
+            .firstName(firstName)
+            .lastName(lastName)
+            .build();
+        if (email != null) {
+            contact
+                .getEmails()
+                .add(
+                    ContactEmail.builder()
+                        .email(email)
+                        .type(EmailType.WORK)
+                        .contact(contact)
+                        .build()
+                );
+        }
+        if (phone != null) {
+            contact
+                .getPhones()
+                .add(
+                    ContactPhone.builder()
+                        .phoneNumber(phone)
+                        .type(PhoneType.WORK)
+                        .contact(contact)
+                        .build()
+                );
+        }
+        return contact;
+    }
+}
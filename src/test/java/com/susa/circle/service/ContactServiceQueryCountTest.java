@@ -0,0 +1,252 @@
+package com.susa.circle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.susa.circle.config.DatabasePlatform;
+import com.susa.circle.dto.response.ContactCursorPage;
+import com.susa.circle.dto.response.ContactResponse;
+import com.susa.circle.entity.Contact;
+import com.susa.circle.entity.ContactEmail;
+import com.susa.circle.entity.ContactPhone;
+import com.susa.circle.entity.User;
+import com.susa.circle.enums.EmailType;
+import com.susa.circle.enums.PhoneType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+@DataJpaTest(
+    properties = "spring.jpa.properties.hibernate.generate_statistics=true"
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(
+    {
+        ContactService.class,
+        ContactSearchIndex.class,
+        DatabasePlatform.class,
+        PostgresContactSearch.class,
+    }
+)
+class ContactServiceQueryCountTest {
+
+    private static final int CONTACTS = 120;
+    private static final int[] PAGE_SIZES = { 1, 10, 50, 100 };
+    // page of ids, total, contacts with emails, contacts with phones
+    private static final long STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ContactService contactService;
+
+    private User testUser;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+            .firstName("John")
+            .lastName("Doe")
+            .email("paging@example.com")
+            .password("password")
+            .active(true)
+            .contacts(new ArrayList<>())
+            // The contacts below are persisted directly, not counted
+            .contactCount((long) CONTACTS)
+            .build();
+        testUser = entityManager.persist(testUser);
+
+        for (int i = 0; i < CONTACTS; i++) {
+            Contact contact = Contact.builder()
+                .firstName(String.format("First%03d", i))
+                .lastName("Last" + i)
+                .user(testUser)
+                .build();
+            for (int j = 0; j < 2; j++) {
+                contact
+                    .getEmails()
+                    .add(
+                        ContactEmail.builder()
+                            .email("user" + i + "." + j + "@example.com")
+                            .type(EmailType.WORK)
+                            .contact(contact)
+                            .build()
+                    );
+            }
+            contact
+                .getPhones()
+                .add(
+                    ContactPhone.builder()
+                        .phoneNumber("+1555" + (1000000 + i))
+                        .type(PhoneType.HOME)
+                        .contact(contact)
+                        .build()
+                );
+            entityManager.persist(contact);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+    }
+
+    @Test
+    void testGetAllContacts_StatementCountIndependentOfPageSize() {
+        for (int size : PAGE_SIZES) {
+            Pageable pageable = pageOf(size);
+            statistics.clear();
+
+            Page<ContactResponse> page = contactService.getAllContacts(
+                testUser.getId(),
+                pageable
+            );
+
+            assertEquals(
+                STATEMENTS_PER_PAGE,
+                statistics.getPrepareStatementCount(),
+                "statements for a page of " + size
+            );
+            assertPageLoaded(page, size);
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void testSearchContacts_StatementCountIndependentOfPageSize() {
+        for (int size : PAGE_SIZES) {
+            Pageable pageable = pageOf(size);
+            statistics.clear();
+
+            Page<ContactResponse> page = contactService.searchContacts(
+                testUser.getId(),
+                "first",
+                pageable
+            );
+
+            assertEquals(
+                STATEMENTS_PER_PAGE,
+                statistics.getPrepareStatementCount(),
+                "statements for a page of " + size
+            );
+            assertPageLoaded(page, size);
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void testSearchContacts_MatchesEmailsAndPhoneDigits() {
+        statistics.clear();
+
+        Page<ContactResponse> byEmail = contactService.searchContacts(
+            testUser.getId(),
+            "USER7.1@",
+            pageOf(10)
+        );
+
+        assertEquals(
+            STATEMENTS_PER_PAGE,
+            statistics.getPrepareStatementCount()
+        );
+        assertEquals(1, byEmail.getTotalElements());
+        assertEquals("First007", byEmail.getContent().get(0).getFirstName());
+
+        Page<ContactResponse> byPhone = contactService.searchContacts(
+            testUser.getId(),
+            "(555) 100-0042",
+            pageOf(10)
+        );
+
+        assertEquals(1, byPhone.getTotalElements());
+        assertEquals("First042", byPhone.getContent().get(0).getFirstName());
+    }
+
+    @Test
+    void testGetContactSlice_RunsNoCount() {
+        for (int size : PAGE_SIZES) {
+            Pageable pageable = pageOf(size);
+            statistics.clear();
+
+            Slice<ContactResponse> slice = contactService.getContactSlice(
+                testUser.getId(),
+                pageable
+            );
+
+            assertEquals(
+                STATEMENTS_PER_PAGE - 1,
+                statistics.getPrepareStatementCount(),
+                "statements for a slice of " + size
+            );
+            assertEquals(size, slice.getContent().size());
+            assertTrue(slice.hasNext());
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void testGetContactsAfter_EveryPageCostsTheSame() {
+        List<String> lastNames = new ArrayList<>();
+        String cursor = "";
+        do {
+            statistics.clear();
+
+            ContactCursorPage page = contactService.getContactsAfter(
+                testUser.getId(),
+                ContactCursor.parse(cursor),
+                25
+            );
+
+            // page of ids, contacts with emails, contacts with phones
+            assertEquals(3, statistics.getPrepareStatementCount());
+            page
+                .getContent()
+                .forEach(contact -> lastNames.add(contact.getLastName()));
+            cursor = page.getNextCursor();
+            entityManager.clear();
+        } while (cursor != null);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < CONTACTS; i++) {
+            expected.add("Last" + i);
+        }
+        Collections.sort(expected);
+        assertEquals(expected, lastNames);
+    }
+
+    private static Pageable pageOf(int size) {
+        return PageRequest.of(0, size, Sort.by("firstName").descending());
+    }
+
+    private static void assertPageLoaded(Page<ContactResponse> page, int size) {
+        assertEquals(CONTACTS, page.getTotalElements());
+        assertEquals(size, page.getContent().size());
+        for (int i = 0; i < size; i++) {
+            ContactResponse contact = page.getContent().get(i);
+            // Kept in the order of the page of ids
+            assertEquals(
+                String.format("First%03d", CONTACTS - 1 - i),
+                contact.getFirstName()
+            );
+            assertEquals(2, contact.getEmails().size());
+            assertEquals(1, contact.getPhones().size());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import com.susa.circle.config.DatabasePlatform;
 import com.susa.circle.dto.request.ContactRequest;
 import com.susa.circle.dto.request.EmailRequest;
 import com.susa.circle.dto.request.PhoneRequest;
@@ -12,6 +13,7 @@ import com.susa.circle.entity.Contact;
 import com.susa.circle.entity.ContactEmail;
 import com.susa.circle.entity.ContactPhone;
 import com.susa.circle.entity.User;
+import com.susa.circle.event.ContactsChangedEvent;
 import com.susa.circle.enums.EmailType;
 import com.susa.circle.enums.PhoneType;
 import com.susa.circle.exception.BadRequestException;
@@ -28,10 +30,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 @ExtendWith(MockitoExtension.class)
 class ContactServiceTest {
@@ -42,6 +47,18 @@ class ContactServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DatabasePlatform databasePlatform;
+
+    @Mock
+    private PostgresContactSearch postgresContactSearch;
+
+    @Mock
+    private ContactSearchIndex contactSearchIndex;
+
     @InjectMocks
     private ContactService contactService;
 
@@ -123,6 +140,10 @@ class ContactServiceTest {
 
         verify(userRepository).findById(1L);
         verify(contactRepository).save(any(Contact.class));
+        verify(userRepository).adjustContactCount(1L, 1);
+        verify(eventPublisher).publishEvent(
+            ContactsChangedEvent.saved(1L, response)
+        );
     }
 
     @Test
@@ -141,13 +162,15 @@ class ContactServiceTest {
 
     @Test
     void testGetAllContacts_Success() {
-        List<Contact> contacts = Arrays.asList(testContact);
-        Page<Contact> contactPage = new PageImpl<>(contacts);
+        Slice<Long> idSlice = new SliceImpl<>(List.of(1L));
         Pageable pageable = PageRequest.of(0, 10);
 
-        when(contactRepository.findByUserId(1L, pageable)).thenReturn(
-            contactPage
+        when(contactRepository.findIdSliceByUserId(1L, pageable)).thenReturn(
+            idSlice
         );
+        when(
+            contactRepository.findAllWithEmailsByIdIn(List.of(1L))
+        ).thenReturn(List.of(testContact));
 
         Page<ContactResponse> response = contactService.getAllContacts(
             1L,
@@ -158,18 +181,47 @@ class ContactServiceTest {
         assertEquals(1, response.getTotalElements());
         assertEquals("Jane", response.getContent().get(0).getFirstName());
 
-        verify(contactRepository).findByUserId(1L, pageable);
+        verify(contactRepository).findIdSliceByUserId(1L, pageable);
+        verify(contactRepository).findAllWithPhonesByIdIn(List.of(1L));
+        // A short first page is its own total
+        verify(userRepository, never()).findContactCountById(any());
+        verify(contactRepository, never()).countByUserId(any());
+    }
+
+    @Test
+    void testGetAllContacts_TotalFromContactCount() {
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(contactRepository.findIdSliceByUserId(1L, pageable)).thenReturn(
+            new SliceImpl<>(List.of(1L), pageable, true)
+        );
+        when(
+            contactRepository.findAllWithEmailsByIdIn(List.of(1L))
+        ).thenReturn(List.of(testContact));
+        when(userRepository.findContactCountById(1L)).thenReturn(
+            Optional.of(42L)
+        );
+
+        Page<ContactResponse> response = contactService.getAllContacts(
+            1L,
+            pageable
+        );
+
+        assertEquals(42, response.getTotalElements());
+        verify(contactRepository, never()).countByUserId(any());
     }
 
     @Test
     void testSearchContacts_Success() {
-        List<Contact> contacts = Arrays.asList(testContact);
-        Page<Contact> contactPage = new PageImpl<>(contacts);
+        Page<Long> idPage = new PageImpl<>(List.of(1L));
         Pageable pageable = PageRequest.of(0, 10);
 
         when(
-            contactRepository.searchContactsByUserId(1L, "jane", pageable)
-        ).thenReturn(contactPage);
+            contactRepository.searchContactIdsByUserId(1L, "jane", pageable)
+        ).thenReturn(idPage);
+        when(
+            contactRepository.findAllWithEmailsByIdIn(List.of(1L))
+        ).thenReturn(List.of(testContact));
 
         Page<ContactResponse> response = contactService.searchContacts(
             1L,
@@ -181,7 +233,68 @@ class ContactServiceTest {
         assertEquals(1, response.getTotalElements());
         assertEquals("Jane", response.getContent().get(0).getFirstName());
 
-        verify(contactRepository).searchContactsByUserId(1L, "jane", pageable);
+        verify(contactRepository).searchContactIdsByUserId(
+            1L,
+            "jane",
+            pageable
+        );
+        verify(contactRepository).findAllWithPhonesByIdIn(List.of(1L));
+    }
+
+    @Test
+    void testSearchContacts_UsesTrigramSearchOnPostgres() {
+        Page<Long> idPage = new PageImpl<>(List.of(1L));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(
+            postgresContactSearch.searchIds(1L, "jane@", pageable)
+        ).thenReturn(idPage);
+        when(
+            contactRepository.findAllWithEmailsByIdIn(List.of(1L))
+        ).thenReturn(List.of(testContact));
+
+        Page<ContactResponse> response = contactService.searchContacts(
+            1L,
+            "jane@",
+            pageable
+        );
+
+        assertEquals("Jane", response.getContent().get(0).getFirstName());
+        verify(contactRepository, never()).searchContactIdsByUserId(
+            any(),
+            any(),
+            any()
+        );
+    }
+
+    @Test
+    void testSearchContacts_ServedFromIndexWhenEnabled() {
+        ContactResponse jane = ContactResponse.builder()
+            .id(1L)
+            .firstName("Jane")
+            .lastName("Smith")
+            .build();
+        ContactResponse janet = ContactResponse.builder()
+            .id(2L)
+            .firstName("Janet")
+            .lastName("Smith")
+            .build();
+        Pageable pageable = PageRequest.of(1, 1);
+
+        when(
+            contactSearchIndex.search(1L, "jan", pageable.getSort())
+        ).thenReturn(Optional.of(List.of(jane, janet)));
+
+        Page<ContactResponse> response = contactService.searchContacts(
+            1L,
+            "jan",
+            pageable
+        );
+
+        assertEquals(2, response.getTotalElements());
+        assertEquals(List.of(janet), response.getContent());
+        verifyNoInteractions(contactRepository);
     }
 
     @Test
@@ -319,6 +432,10 @@ class ContactServiceTest {
 
         verify(contactRepository).findById(1L);
         verify(contactRepository).delete(testContact);
+        verify(userRepository).adjustContactCount(1L, -1);
+        verify(eventPublisher).publishEvent(
+            ContactsChangedEvent.deleted(1L, 1L)
+        );
     }
 
     @Test
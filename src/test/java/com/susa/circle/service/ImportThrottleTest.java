@@ -0,0 +1,99 @@
+package com.susa.circle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.susa.circle.exception.TooManyRequestsException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ImportThrottleTest {
+
+    private final ImportThrottle importThrottle = new ImportThrottle(
+        2,
+        1,
+        0,
+        Duration.ZERO,
+        Duration.ofSeconds(30)
+    );
+
+    @Test
+    void testAdmit_RejectsSecondImportOfSameUser() {
+        ImportThrottle.Permit permit = importThrottle.admit(1L);
+
+        TooManyRequestsException exception = assertThrows(
+            TooManyRequestsException.class,
+            () -> importThrottle.admit(1L)
+        );
+        assertEquals(Duration.ofSeconds(30), exception.getRetryAfter());
+
+        // Other users still get a slot, and closing frees the first one
+        assertDoesNotThrow(() -> importThrottle.admit(2L).close());
+        permit.close();
+        permit.close();
+        assertDoesNotThrow(() -> importThrottle.admit(1L).close());
+    }
+
+    @Test
+    void testAdmit_RejectsUntilChargedRowsArePaid() {
+        ImportThrottle throttle = new ImportThrottle(
+            2,
+            1,
+            1000,
+            Duration.ZERO,
+            Duration.ofSeconds(30)
+        );
+
+        // Charging never blocks, the user's next import pays for it
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+            throttle.chargeRows(1L, 5000)
+        );
+        TooManyRequestsException exception = assertThrows(
+            TooManyRequestsException.class,
+            () -> throttle.admit(1L)
+        );
+        assertTrue(exception.getRetryAfter().toSeconds() >= 3);
+        assertDoesNotThrow(() -> throttle.admit(2L).close());
+    }
+
+    @Test
+    void testEntriesOfIdleUsersAreDropped() throws InterruptedException {
+        ImportThrottle throttle = new ImportThrottle(
+            2,
+            1,
+            1000,
+            Duration.ZERO,
+            Duration.ofSeconds(30)
+        );
+
+        throttle.admit(1L).close();
+        throttle.acquireRows(1L, 1);
+        throttle.chargeRows(2L, 5000);
+        Thread.sleep(10);
+        throttle.evictIdleRates();
+
+        assertEquals(Map.of(), userSlots(throttle));
+        // User 2 still owes rows
+        assertEquals(Set.of(2L), rowRates(throttle).keySet());
+    }
+
+    @Test
+    void testAdmit_RejectsOverGlobalLimit() {
+        importThrottle.admit(1L);
+        importThrottle.admit(2L);
+
+        assertThrows(TooManyRequestsException.class, () ->
+            importThrottle.admit(3L)
+        );
+    }
+
+    private static Map<?, ?> userSlots(ImportThrottle throttle) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(throttle, "userSlots");
+    }
+
+    private static Map<?, ?> rowRates(ImportThrottle throttle) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(throttle, "rowRates");
+    }
+}